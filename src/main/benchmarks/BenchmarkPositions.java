@@ -0,0 +1,35 @@
+package main.benchmarks;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+
+// The fixed set of positions every benchmark runs over, so results can be compared between runs
+// They are taken from a game where both sides always play their first move, from the opening,
+// through the middle game and positions with forced takes, to an ending with a king on the board
+final class BenchmarkPositions {
+
+    // The plies of the game the positions are taken at
+    private static final int[] PLIES = {0, 9, 19, 30, 41};
+
+    private BenchmarkPositions() {
+    }
+
+    static BitBoard[] positions() {
+        BitBoard[] positions = new BitBoard[PLIES.length];
+        BitBoard position = BitBoard.initial();
+        MoveList moves = new MoveList();
+        int found = 0;
+        for (int ply = 0; found < PLIES.length; ply++) {
+            if (ply == PLIES[found]) {
+                positions[found++] = position.copy();
+            }
+            MoveGenerator.generate(position, moves);
+            if (moves.isEmpty()) {
+                throw new IllegalStateException("The benchmark game ended after " + ply + " moves");
+            }
+            position.makeMove(moves.get(0), moves.getVictims(0));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,27 @@
+package main.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH benchmarks with the GC profiler, which adds the allocation rate (gc.alloc.rate) and
+// the bytes allocated per call (gc.alloc.rate.norm) to the time of each benchmark
+// The benchmark classes must be compiled with JMH's annotation processor (jmh-generator-annprocess)
+// on the classpath, and the classpath also needs jmh-core and the JavaFX jars
+//
+// Run with: java main.benchmarks.Benchmarks [regex of the benchmarks to run]
+// e.g. "BitBoardBenchmark" for just the move generator, make/undo and evaluation
+// Compare runs of the same benchmarks before and after a change to the engine
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : Benchmarks.class.getPackage().getName() + ".*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
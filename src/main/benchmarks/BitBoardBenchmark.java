@@ -0,0 +1,85 @@
+package main.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.Search;
+
+// Benchmarks the parts of the search that run at every node: generating moves, checking whether
+// there are any, making and undoing them, and evaluating a position. None of them should allocate,
+// which the GC profiler shows
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBoardBenchmark {
+
+    // Index into BenchmarkPositions
+    @Param({"0", "1", "2", "3", "4"})
+    public int position;
+
+    private BitBoard board;
+    private MoveList moves;
+    private MoveList generated;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.positions()[position];
+        moves = new MoveList();
+        generated = new MoveList();
+        MoveGenerator.generate(board, moves);
+    }
+
+    // The list is reused, as it is in the search
+    @Benchmark
+    public int generateMoves() {
+        MoveGenerator.generate(board, generated);
+        return generated.size();
+    }
+
+    // Whether the side to move has a move, which the search asks at every quiet quiescence node
+    @Benchmark
+    public boolean hasAnyMove() {
+        return MoveGenerator.hasAnyMove(board);
+    }
+
+    // Makes and undoes every move of the position
+    @Benchmark
+    public void makeUndo(Blackhole blackhole) {
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i), moves.getVictims(i));
+            blackhole.consume(board.getHash());
+            board.undoMove();
+        }
+    }
+
+    // The evaluation the search uses, which reads the score kept up to date by make/undo
+    @Benchmark
+    public int evaluate() {
+        return Search.evaluate(board);
+    }
+
+    // Adding up the value of every piece from scratch, which is what evaluate would cost without
+    // the incremental score
+    @Benchmark
+    public int evaluateFromScratch() {
+        return board.getEvaluation().valueOf(board.getBlack(), board.getRed(), board.getKings());
+    }
+}
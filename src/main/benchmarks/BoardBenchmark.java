@@ -0,0 +1,105 @@
+package main.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.java.gui.Piece;
+import main.java.gui.Tile;
+import main.java.impl.BitBoard;
+import main.java.impl.Board;
+import main.java.impl.Move;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.Player;
+import main.java.impl.Take;
+import main.java.impl.TakeSequence;
+import main.java.impl.TileType;
+
+// Benchmarks the Board, which the game uses to check the human player's moves and to make every move
+// on the Tiles and Pieces that are displayed. The Tiles and Pieces are JavaFX nodes, but they are never
+// shown so no window is needed
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    // Index into BenchmarkPositions. The last position is left out, as placing a king draws its
+    // image, which needs the JavaFX toolkit to be running
+    @Param({"0", "1", "2", "3"})
+    public int position;
+
+    private Board board;
+    private Player player;
+    private List<Piece> pieces;
+
+    // The first move of the position, and the pieces it takes
+    private Move move;
+    private List<Piece> targets;
+
+    @Setup
+    public void setUp() {
+        BitBoard bitBoard = BenchmarkPositions.positions()[position];
+        board = new Board();
+        for (int y = 0; y < Board.HEIGHT; y++) {
+            for (int x = 0; x < Board.WIDTH; x++) {
+                board.getState()[x][y] = new Tile(x, y, (x + y) % 2 == 0 ? TileType.YELLOW : TileType.BROWN);
+            }
+        }
+        player = new Player("Benchmark", false, bitBoard.getSideToMove());
+        pieces = new ArrayList<>();
+        for (Piece piece : board.placePieces(bitBoard)) {
+            if (piece.getSide() == player.getSide()) {
+                pieces.add(piece);
+            }
+        }
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(bitBoard, moves);
+        move = board.toMove(moves.get(0), moves.getVictims(0));
+        targets = new ArrayList<>();
+        if (move instanceof TakeSequence) {
+            targets.addAll(((TakeSequence) move).getTargets());
+        } else if (move instanceof Take) {
+            targets.add(((Take) move).getTarget());
+        }
+    }
+
+    @Benchmark
+    public List<Move> findValidMoves() {
+        return board.findValidMoves(player, pieces);
+    }
+
+    @Benchmark
+    public List<Take> findForceTakes() {
+        return board.findForceTakes(pieces);
+    }
+
+    // Makes the move and then puts the tiles back as they were. acceptMove doesn't change the pieces,
+    // only which tiles hold them, so the move can be made again on the next call
+    @Benchmark
+    public Board acceptMove() {
+        board.acceptMove(move);
+        board.tileAt(move.getDest()).removePiece();
+        board.tileAt(move.getOrigin()).setPiece(move.getPiece());
+        for (Piece target : targets) {
+            board.tileAt(target.getPosition()).setPiece(target);
+        }
+        return board;
+    }
+}
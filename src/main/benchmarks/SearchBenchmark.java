@@ -0,0 +1,60 @@
+package main.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.java.impl.BitBoard;
+import main.java.impl.Search;
+import main.java.impl.TranspositionTable;
+
+// Benchmarks a full search of each position to a fixed depth
+// The transposition table is cleared before every search, so each one starts from nothing
+// as it would for a new game, rather than from the results of the last
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    // Index into BenchmarkPositions
+    @Param({"0", "1", "2", "3", "4"})
+    public int position;
+
+    @Param({"8"})
+    public int depth;
+
+    private BitBoard root;
+    private TranspositionTable table;
+    private Search search;
+
+    @Setup
+    public void setUp() {
+        root = BenchmarkPositions.positions()[position];
+        table = new TranspositionTable();
+        search = new Search(table);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public int search() {
+        return search.findBestMove(root, depth);
+    }
+}
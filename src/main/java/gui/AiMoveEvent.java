@@ -0,0 +1,41 @@
+package main.java.gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// A JDK Flight Recorder event for each move the AI decides on, from the opening book or by searching
+// Its duration is the time from the AI being asked for a move to it having one, so together with
+// MoveAppliedEvent and the search's own SearchIterationEvents a recording shows where the time of an AI turn went
+@Name("checkers.AiMove")
+@Label("AI Move")
+@Category({"Checkers", "AI"})
+@Description("The AI deciding on a move")
+class AiMoveEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    String player;
+
+    @Label("Move")
+    String move;
+
+    @Label("From Book")
+    boolean fromBook;
+
+    @Label("Ponder Hit")
+    @Description("The AI was already searching the position while the opponent was thinking")
+    boolean ponderHit;
+
+    @Label("Depth")
+    @Description("Depth of the deepest search that completed, 0 for a book move")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Time Budget")
+    @Timespan(Timespan.MILLISECONDS)
+    long budget;
+}
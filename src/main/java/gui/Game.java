@@ -2,17 +2,29 @@ package main.java.gui;
 
 import java.awt.*;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
@@ -24,14 +36,26 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import main.java.impl.AIService;
+import main.java.impl.BitBoard;
 import main.java.impl.Board;
+import main.java.impl.Engine;
 import main.java.impl.Move;
-import main.java.impl.MoveAndScore;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.OpeningBook;
+import main.java.impl.PackedMove;
+import main.java.impl.ParallelSearch;
 import main.java.impl.PieceType;
 import main.java.impl.Player;
 import main.java.impl.Position;
+import main.java.impl.Search;
+import main.java.impl.SearchResult;
 import main.java.impl.Side;
+import main.java.impl.Tablebase;
 import main.java.impl.Take;
+import main.java.impl.TakeSequence;
 import main.java.impl.TileType;
 import main.java.utils.GameUtils;
 
@@ -49,11 +73,38 @@ public class Game extends Application {
     private List<Take> availableTakes;
     private boolean gameInProgress;
     private static TextArea updates;
-    private List<MoveAndScore> successorEvaluations;
     private Stack<Take> takesMade;
+    private Engine engine;
+    private AIService aiService;
+    private OpeningBook book;
+    private MoveList bookMoves;
+    private Random random;
+
 
     private Slider difficulty;
-    private int depthLimit;
+
+    // Whether the AI thinks on the user's time (see startPondering)
+    private CheckBox ponder;
+
+    private static final String TABLEBASE_DIRECTORY = "tablebase";
+    private static final String BOOK_FILE = "opening.book";
+    private static final String STATS_MBEAN = "main.java.impl:type=SearchStats";
+
+    // How long to wait between moves when two AIs play each other, so their moves can be followed
+    private static final Duration AI_GAME_PAUSE = Duration.seconds(1);
+
+    // The AI's move being searched for, or null if the AI isn't searching
+    private CompletableFuture<SearchResult> pendingAIMove;
+
+    // How long the AI may think for each move, set from the difficulty slider when the game starts
+    private long moveTimeMillis;
+
+    // The game as a BitBoard that every move is made on, so it has the history of positions needed
+    // to spot a draw (see followGame). The AI searches from a copy of it so it knows the history too
+    private BitBoard gamePosition;
+
+    // Set once the game has ended, until it is stopped and the board is cleared
+    private boolean gameOver;
 
     public Game() {
         board = new Board();
@@ -67,8 +118,59 @@ public class Game extends Application {
         availableMoves = new ArrayList<>();
         availableTakes = new ArrayList<>();
         gameInProgress = false;
-        successorEvaluations = new ArrayList<>();
         takesMade = new Stack<>();
+        engine = createEngine();
+        aiService = new AIService(engine);
+        registerStats();
+        loadTablebase();
+        loadBook();
+        bookMoves = new MoveList();
+        random = new Random();
+    }
+
+    // The opening book is used if one has been built into the book file (see OpeningBookBuilder)
+    private void loadBook() {
+        Path file = Paths.get(BOOK_FILE);
+        if (Files.isRegularFile(file)) {
+            try {
+                book = OpeningBook.open(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Endgames are looked up in the tablebase if one has been generated into the tablebase directory
+    // (see TablebaseGenerator)
+    private void loadTablebase() {
+        Path directory = Paths.get(TABLEBASE_DIRECTORY);
+        if (Files.isDirectory(directory)) {
+            try {
+                engine.setTablebase(Tablebase.open(directory));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Makes the statistics of the AI's last search visible over JMX, e.g. in JConsole
+    private void registerStats() {
+        try {
+            ObjectName name = new ObjectName(STATS_MBEAN);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(engine.getStats(), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Root moves are searched in parallel when there is more than one core to search them on
+    private static Engine createEngine() {
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            return new ParallelSearch();
+        }
+        return new Search();
     }
 
     // This creates all of the tiles and places them on within a pane before returning the pane
@@ -145,41 +247,12 @@ public class Game extends Application {
 
     // start game by finding available moves
     private void startNewTurn() {
+        gamePosition = board.toBitBoard(currentPlayer.getSide());
         availableMoves = board.findValidMoves(currentPlayer, getPiecesForPlayer(currentPlayer));
         availableTakes = board.findForceTakes(getPiecesForPlayer(currentPlayer));
         printState();
     }
 
-    // When two AIs play against each other we run a loop
-    // with some threading logic to make moves visible
-    private void runAIGame() {
-        while (gameInProgress) {
-            Thread moveThread= new Thread(() -> {
-                makeAIMove();
-                try {
-                    Thread.currentThread().sleep(1000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            });
-            moveThread.start();
-
-            try {
-                moveThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-
-    // If the human is playing against an AI then we check if it is the AIs
-    // turn (i.e. they player 1) else we pass control over to the user
-    private void startNormalGame() {
-        if (!currentPlayer.isHuman()) {
-            makeAIMove();
-        }
-    }
-
     // This method contains the main logic behind human moves
     // If a take is available the user must make it. If more takes exist
     // they must continue making them until none are left.
@@ -188,27 +261,49 @@ public class Game extends Application {
     // Else the move is not valid so we snap it back to its original position
     private void tryUserMove(Move move) {
 
+        if (gameOver) {
+            move.getPiece().moveTo(move.getOrigin());
+            updates.appendText("The game is over, press stop to clear the board\n");
+            return;
+        }
+
+        // The board stays responsive while the AI is thinking, but it isn't the user's turn
+        if (!currentPlayer.isHuman()) {
+            move.getPiece().moveTo(move.getOrigin());
+            updates.appendText("Wait for " + currentPlayer.getName() + " to move\n");
+            return;
+        }
+
         // If take does not exist then check if this move is in the list of available
         // moves, otherwise check if it is in available takes. If not snap back to original
         // position
         if (availableTakes.isEmpty() && availableMoves.contains(move)) {
+            MoveAppliedEvent applied = new MoveAppliedEvent();
+            applied.begin();
             // Update board state
             makeMove(move);
             // Animate the move
             animateMove(move);
+            recordMoveApplied(applied, move);
 
             updates.appendText("(" + currentPlayer.getName() +  ") Move: " + move.toString() + "\n");
 
             // Pass control to other player
             nextMove();
         } else  if (!availableTakes.isEmpty() && availableTakes.contains(move)) {
+            MoveAppliedEvent applied = new MoveAppliedEvent();
+            applied.begin();
+            // A man crowned by this take has to stop, as it does for the AI (see MoveGenerator)
+            Take take = availableTakes.get(availableTakes.indexOf(move));
+            boolean crowned = !take.getPiece().isKing() && take.moveCausedKing();
             makeTake(move);
             animateTake(move);
+            recordMoveApplied(applied, move);
             updates.appendText("(" + currentPlayer.getName() +  ") Take: " + move.toString() + "\n");
 
             // Check if more takes are available once we have made a successful take
             unmarkForceTakes(availableTakes);
-            availableTakes = findAdditionalTakes(move.getPiece());
+            availableTakes = findAdditionalTakes(move.getPiece(), crowned);
             markForceTakes(availableTakes);
             if (availableTakes.isEmpty()) {
                 nextMove();
@@ -233,28 +328,14 @@ public class Game extends Application {
         }
 
         // If other player is an AI then get then make the AI's next move
-        if (!currentPlayer.isHuman()) {
-            Thread aiMoveThread = new Thread(() -> {
-                makeAIMove();
-            });
-            aiMoveThread.start();
-            try {
-                aiMoveThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        if (!currentPlayer.isHuman() && !gameOver) {
+            makeAIMove();
         }
     }
 
-    // The given player has won if the opposing player has no pieces left
-    // or can make no more valid moves
-    private boolean playerHasWon(Player player) {
-        return getPiecesForPlayer(otherPlayer(player)).isEmpty() || board.findValidMoves(otherPlayer(player), getPiecesForPlayer(otherPlayer(player))).isEmpty();
-    }
-
     // This makes a move by making changes to the underlying board state
     // without animation
-    // This is what is used during game simulation in minimax
+    // The board is only changed once a move has been chosen, searching uses a BitBoard instead
     private void makeMove(Move move) {
         // If move destination at opposing sides edge then convert to king
         if ((move.getPiece().getSide() == Side.BOTTOM && move.getDest().getY() == 0) ||
@@ -271,7 +352,7 @@ public class Game extends Application {
 
     // This makes a take by making changes to the underlying board state
     // without Animation
-    // This is what is used during game simulation in minimax
+    // The board is only changed once a move has been chosen, searching uses a BitBoard instead
     private void makeTake(Move move) {
         Take take = availableTakes.get(availableTakes.indexOf(move));
 
@@ -294,201 +375,161 @@ public class Game extends Application {
         take.getPiece().updatePositionTo(take.getDest());
     }
 
-    // Completely reverses a move by changing board state to state
-    // that existed before the given move was made
-    // Used in minimax simulation
-    private void undoMove(Move move) {
-        Move reverse = new Move(move.getPiece(), move.getOrigin());
+    // This makes a whole chain of takes by making changes to the underlying board state
+    // without Animation
+    private void makeTakeSequence(TakeSequence takes) {
+        Piece attacker = takes.getPiece();
 
-        // We convert the moving piece back to a normal piece
-        // if the move led to a king conversion
-        if (move.moveCausedKing()) {
-            move.getPiece().demote();
+        if (takes.moveCausedKing()) {
+            attacker.makeKing();
         }
 
-        board.acceptMove(reverse);
-        move.getPiece().updatePositionTo(move.getOrigin());
+        // Remove the taken pieces from the opposing players list of pieces
+        getPiecesForPlayer(otherPlayer(currentPlayer)).removeAll(takes.getTargets());
+
+        board.acceptMove(takes);
+        attacker.updatePositionTo(takes.getDest());
     }
 
-    // Completely reverses a take by changing board state to state
-    // that existed before the given take was made
-    // Used in minimax simulation
-    private void undoTake(Take take) {
-        Move reverse = new Move(take.getPiece(), take.getOrigin());
-        board.acceptMove(reverse);
-        board.tileAt(take.getTarget().getPosition()).setPiece(take.getTarget());
-        take.getPiece().updatePositionTo(take.getOrigin());
+    // Asks the AI for its move. Runs on the JavaFX application thread and doesn't wait for the move:
+    // the search runs on the AIService's thread, and the move is made back on the application thread
+    // once it has been found (see applyAIMove)
+    // Positions in the opening book are played straight from the book without searching
+    private void makeAIMove() {
+        AiMoveEvent decision = new AiMoveEvent();
+        decision.begin();
+        BitBoard position = gamePosition.copy();
+        int bookMove = book == null ? -1 : findBookMove(position);
+        if (bookMove >= 0) {
+            int move = bookMoves.get(bookMove);
+            int victims = bookMoves.getVictims(bookMove);
+            recordAIMove(decision, move, victims, 0, 0, true, false);
+            updates.appendText("(" + currentPlayer.getName() +  ") Book move\n");
+            applyAIMove(move, victims);
+            return;
+        }
+
+        boolean ponderHit = aiService.isPonderingOn(position);
+        if (ponderHit) {
+            updates.appendText("(" + currentPlayer.getName() +  ") Ponder hit\n");
+        }
+        CompletableFuture<SearchResult> request = startSimulation(position);
+        pendingAIMove = request;
+        request.thenAccept(result -> Platform.runLater(() -> {
+            // The game may have been stopped, or a new one started, while the AI was searching
+            if (pendingAIMove != request) {
+                return;
+            }
+            pendingAIMove = null;
+            String name = currentPlayer.getName();
+            recordAIMove(decision, result.getMove(), result.getVictims(), result.getDepth(), result.getNodes(),
+                    false, ponderHit);
+            if (applyAIMove(result.getMove(), result.getVictims())) {
+                updates.appendText("(" + name +  ") " + result.getSummary() + "\n");
+                startPondering(result);
+            }
+        }));
+    }
 
-        if (take.moveCausedKing()) {
-            take.getPiece().demote();
+    // While the user thinks about their move, the AI searches the position after the reply it expects
+    // (the second move of its principal variation). If the user plays that reply the AI's search is
+    // already under way, and the AI usually moves straight away
+    private void startPondering(SearchResult result) {
+        MoveList line = result.getPrincipalVariation();
+        if (!ponder.isSelected() || !gameInProgress || gameOver || !currentPlayer.isHuman() || line.size() < 2) {
+            return;
         }
-        if (take.getTarget().getSide() == Side.BOTTOM) {
-            blackPieces.add(take.getTarget());
-        } else {
-            redPieces.add(take.getTarget());
+        BitBoard position = gamePosition.copy();
+        MoveList replies = new MoveList();
+        MoveGenerator.generate(position, replies);
+        if (replies.contains(line.get(1), line.getVictims(1))) {
+            position.makeMove(line.get(1), line.getVictims(1));
+            aiService.ponder(position);
         }
     }
 
-    // Runs simulation of the game from the current board state
-    // and the AI makes the best possible move based on this
-    private void makeAIMove() {
-        startSimulation();
+    // Makes the AI's move on the board and passes control to the other player
+    // A chain of takes is found by the search as a single move and is made all at once
+    // Return false if the AI had no move to make
+    private boolean applyAIMove(int bestMove, int victims) {
+        if (bestMove == PackedMove.NONE) {
+            return false;
+        }
 
-        Move aiMove = getBestMove();
-        if (availableTakes.contains(aiMove)) {
-            makeTake(aiMove);
-            animateTake(aiMove);
+        MoveAppliedEvent applied = new MoveAppliedEvent();
+        applied.begin();
+        Move aiMove = board.toMove(bestMove, victims);
+        if (aiMove instanceof TakeSequence) {
+            makeTakeSequence((TakeSequence) aiMove);
+            animateTakeSequence((TakeSequence) aiMove);
             updates.appendText("(" + currentPlayer.getName() +  ") Take: " + aiMove.toString() + "\n");
-            unmarkForceTakes(availableTakes);
-            availableTakes = board.findForceTakes(Collections.singletonList(aiMove.getPiece()));
-            if (availableTakes.isEmpty()) {
-                nextMove();
-            } else {
-                try {
-                    Thread.currentThread().sleep(1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                makeAIMove();
-            }
         } else {
             makeMove(aiMove);
             animateMove(aiMove);
             updates.appendText("(" + currentPlayer.getName() +  ") Move: " + aiMove.toString() + "\n");
-            nextMove();
         }
+        recordMoveApplied(applied, aiMove);
+        nextMove();
+        if (!currentPlayer.isHuman() && !gameOver) {
+            scheduleAIMove();
+        }
+        return true;
     }
 
-    // Runs minimax starting from a depth of zero
-    private void startSimulation() {
-        successorEvaluations = new ArrayList<>();
-        minimax(0, currentPlayer, Integer.MIN_VALUE, Integer.MAX_VALUE);
-    }
-
-    // From a list of successor moves attain the best one for the current player
-    private Move getBestMove() {
-        return currentPlayer == player1 ? Collections.max(successorEvaluations).getMove() : Collections.min(successorEvaluations).getMove();
-    }
-
-    /*
-    This is an implementation of minimax. To compute our successors we run board.findValidMoves
-    and board.findForceTakes
-
-    We follow the same pattern of forcing takes to be made if there are any otherwise make an available move
-
-    Once we reach a depth of 0 re run evaluateBoardState which returns the current score of the board
-     */
-    private int minimax(int depth, Player player, int alpha, int beta) {
-        currentPlayer = player;
-        List<Move> movesAvailable = board.findValidMoves(player, getPiecesForPlayer(player));
-        List<Take> takesAvailable = board.findForceTakes(getPiecesForPlayer(player));
-
-        availableMoves = movesAvailable;
-        availableTakes = takesAvailable;
-
-        if (player == player1 && playerHasWon(player)) {
-            return 1000;
-        } else if (player == player2 && playerHasWon(player)) {
-            return -1000;
+    // When two AIs play each other the next move is asked for after a pause, so the moves don't fly by
+    private void scheduleAIMove() {
+        PauseTransition pause = new PauseTransition(AI_GAME_PAUSE);
+        pause.setOnFinished(event -> {
+            if (gameInProgress && !gameOver && !currentPlayer.isHuman() && pendingAIMove == null) {
+                makeAIMove();
+            }
+        });
+        pause.play();
+    }
+
+    // Commits a flight recorder event for the AI deciding on a move, if one is being recorded
+    private void recordAIMove(AiMoveEvent event, int move, int victims, int depth, long nodes,
+                              boolean fromBook, boolean ponderHit) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = currentPlayer.getName();
+            event.move = PackedMove.toString(move, victims);
+            event.fromBook = fromBook;
+            event.ponderHit = ponderHit;
+            event.depth = depth;
+            event.nodes = nodes;
+            event.budget = moveTimeMillis;
+            event.commit();
         }
+    }
 
-        if (depth <= depthLimit) {
-            if (player == player1) {
-                int bestScore = Integer.MIN_VALUE;
-                if (! takesAvailable.isEmpty()) {
-                    for (Take take : takesAvailable) {
-                        makeTake(take);
-                        int eval = minimax(depth + 1, otherPlayer(player), alpha, beta);
-                        currentPlayer = player;
-                        bestScore = Math.max(bestScore, eval);
-                        alpha = Math.max(alpha, eval);
-                        undoTake(take);
-                        if (depth == 0) {
-                            successorEvaluations.add(new MoveAndScore(take, bestScore));
-                        }
-                        availableTakes = takesAvailable;
-                        if (alpha >= beta) {
-                            System.out.println("pruuuuning");
-                            break;
-                        }
-                    }
-                    return bestScore;
-                } else if (! movesAvailable.isEmpty()) {
-                    for (Move move : availableMoves) {
-                        makeMove(move);
-                        int eval = minimax(depth + 1, otherPlayer(player), alpha, beta);
-                        currentPlayer = player;
-                        bestScore = Math.max(bestScore, eval);
-                        alpha = Math.max(eval, alpha);
-                        undoMove(move);
-
-                        if (depth == 0) {
-                            successorEvaluations.add(new MoveAndScore(move, bestScore));
-                        }
-                        availableMoves = movesAvailable;
-                        if (alpha >= beta) {
-                            System.out.println("pruuuuning");
-                            break;
-                        }
-                    }
-                    return bestScore;
-                }
-            } else if (player == player2) {
-                int bestScore = Integer.MAX_VALUE;
-                if (! takesAvailable.isEmpty()) {
-                    for (Take take : takesAvailable) {
-                        makeTake(take);
-                        int eval = minimax(depth + 1, otherPlayer(player), alpha, beta);
-                        currentPlayer = player;
-                        bestScore = Math.min(bestScore, eval);
-                        beta = Math.min(beta, eval);
-                        undoTake(take);
-                        if (depth == 0) {
-                            successorEvaluations.add(new MoveAndScore(take, bestScore));
-                        }
-                        availableTakes = takesAvailable;
-                        if (alpha >= beta) {
-                            System.out.println("pruuuuning");
-                            break;
-                        }
-                    }
-                    return bestScore;
-
-                } else if (!movesAvailable.isEmpty()) {
-                    for (Move move : availableMoves) {
-                        makeMove(move);
-                        int eval = minimax(depth + 1, otherPlayer(player), alpha, beta);
-                        currentPlayer = player;
-                        bestScore = Math.min(bestScore, eval);
-                        beta = Math.min(beta, eval);
-                        undoMove(move);
-                        if (depth == 0) {
-                            System.out.println("Adding move");
-                            successorEvaluations.add(new MoveAndScore(move, bestScore));
-                        }
-                        availableMoves = movesAvailable;
-                        if (alpha >= beta) {
-                            System.out.println("pruuuuning");
-                            break;
-                        }
-                    }
-                    return bestScore;
-                }
-            }
+    // Commits a flight recorder event for a move being made on the board, if one is being recorded
+    private void recordMoveApplied(MoveAppliedEvent event, Move move) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = currentPlayer.getName();
+            event.move = move.toString();
+            event.human = currentPlayer.isHuman();
+            event.commit();
         }
-        return evaluateState(player);
     }
 
-    // This method contains the game heuristic that is used in minimax
-    private int evaluateState(Player player) {
-        int takes = 5 * (12 - getPiecesForPlayer(otherPlayer(player)).size());
-        long kingPiecesAttained = getPiecesForPlayer(player).stream()
-                .filter(Piece::isKing)
-                .count();
+    // Starts searching the position for as long as the difficulty allows
+    private CompletableFuture<SearchResult> startSimulation(BitBoard position) {
+        return aiService.findMove(position, moveTimeMillis);
+    }
 
-        return takes + (int) kingPiecesAttained;
+    // Return the index in bookMoves of a move from the opening book, or -1 if the position isn't in it
+    private int findBookMove(BitBoard position) {
+        MoveGenerator.generate(position, bookMoves);
+        return book.choose(position, bookMoves, random);
     }
 
+    // Converts a difficulty from the slider into a thinking time per move
+    // Difficulty 1 gives the AI 50 milliseconds and difficulty 10 gives it 5 seconds
+    private static long difficultyToMillis(int difficulty) {
+        return 50L * difficulty * difficulty;
+    }
 
     // This method simply runs the animation of moves
     // and makes them appear in different locations
@@ -514,21 +555,72 @@ public class Game extends Application {
         }
     }
 
+    // This runs the animation of a chain of takes made by the AI
+    // The taking piece is moved to the end of the chain and every piece it took is removed
+    private void animateTakeSequence(TakeSequence takes) {
+        takes.getPiece().moveTo(takes.getDest());
+        takes.getTargets().forEach(target -> target.setVisible(false));
+
+        if (takes.moveCausedKing()) {
+            takes.getPiece().animateKingConversion();
+        }
+    }
+
     // Prepare for the next players move by unmarking an available moves/takes
     // Change to the other player
     // Find available takes/moves for the next player
     // Mark any force takes
+    // End the game if the move has won or drawn it
     private void nextMove() {
         unMarkValidMoves(availableMoves);
         unmarkForceTakes(availableTakes);
 
         changePlayer();
+        followGame();
 
         availableMoves = board.findValidMoves(currentPlayer, getPiecesForPlayer(currentPlayer));
         availableTakes = board.findForceTakes(getPiecesForPlayer(currentPlayer));
         markForceTakes(availableTakes);
 
         printState();
+
+        // Takes count as moves, so a player whose only moves are takes hasn't lost
+        if (!MoveGenerator.hasAnyMove(gamePosition)) {
+            endGame(otherPlayer(currentPlayer).getName() + " wins: " + currentPlayer.getName() + " has no moves left");
+        } else if (gamePosition.repetitions() >= 2) {
+            endGame("Draw: the same position has been reached three times");
+        } else if (gamePosition.isDraw()) {
+            endGame("Draw: " + gamePosition.getDrawPlies() + " moves without a take or a man moving");
+        }
+    }
+
+    // Makes the move just made on the board on gamePosition, which pushes the position it left onto
+    // its history. The move is found by trying each legal move until one reaches the board's position
+    // The copy keeps the history a draw can come from, but not the moves, so its undo stack can't fill up
+    private void followGame() {
+        BitBoard current = board.toBitBoard(currentPlayer.getSide());
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(gamePosition, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            gamePosition.makeMove(moves.get(i), moves.getVictims(i));
+            if (gamePosition.equals(current)) {
+                gamePosition = gamePosition.copy();
+                return;
+            }
+            gamePosition.undoMove();
+        }
+        // The board doesn't follow on from the last position, so there is no history to keep
+        System.err.println("The move made on the board isn't a legal move of the last position, "
+                + "so the repetition and quiet move history has been lost");
+        gamePosition = current;
+    }
+
+    // Stops the game, leaving the final position on the board until stop is pressed
+    private void endGame(String result) {
+        gameOver = true;
+        pendingAIMove = null;
+        aiService.cancel();
+        updates.appendText(result + "\n");
     }
 
     // Change the current player to the opposing player
@@ -594,7 +686,11 @@ public class Game extends Application {
 
     // Simply runs the same method which finds normal takes
     // Exists for clarity
-    private ArrayList<Take> findAdditionalTakes(Piece piece) {
+    // Becoming a king ends the turn, so a piece that has just been crowned has no more takes
+    private ArrayList<Take> findAdditionalTakes(Piece piece, boolean crowned) {
+        if (crowned) {
+            return new ArrayList<>();
+        }
         return board.findForceTakes(Collections.singletonList(piece));
     }
 
@@ -621,6 +717,12 @@ public class Game extends Application {
         primaryStage.show();
     }
 
+    // Stops the AI's search when the window is closed
+    @Override
+    public void stop() {
+        aiService.shutdown();
+    }
+
     // Create and return side menu
     private VBox createSideMenu() {
         Label header = new Label("Checkers");
@@ -665,7 +767,11 @@ public class Game extends Application {
         difficulty.setSnapToTicks(true);
         difficulty.setValue(5);
 
-        difficultyBox.getChildren().addAll(difficultyLabel, difficulty);
+        ponder = new CheckBox("think on my time");
+        ponder.setSelected(true);
+        ponder.setPadding(new Insets(10, 0, 0, 0));
+
+        difficultyBox.getChildren().addAll(difficultyLabel, difficulty, ponder);
 
         return difficultyBox;
     }
@@ -683,16 +789,12 @@ public class Game extends Application {
                 boardPane.getChildren().addAll(redPieces);
                 boardPane.getChildren().addAll(blackPieces);
 
-                depthLimit = (int) difficulty.getValue();
-                System.out.println(depthLimit);
+                moveTimeMillis = difficultyToMillis((int) difficulty.getValue());
                 startNewTurn();
 
-                if (!player1.isHuman() && !player2.isHuman()) {
-                    Thread AImatch = new Thread(() -> runAIGame());
-                    AImatch.start();
-                } else {
-                    Thread regularMatch = new Thread(() -> startNormalGame());
-                    regularMatch.start();
+                // If player 1 is an AI it moves first, otherwise control passes to the user
+                if (!currentPlayer.isHuman()) {
+                    makeAIMove();
                 }
             } else {
                 updates.appendText("Game already in progress!\n");
@@ -740,6 +842,11 @@ public class Game extends Application {
         // Game no longer in progress
         // Stop button now does nothing
         gameInProgress = false;
+        gameOver = false;
+
+        // Stop the AI if it is thinking, its move is no longer wanted
+        pendingAIMove = null;
+        aiService.cancel();
 
         // Game has stopped. Hint button should show nothing if pressed
         // Therefore availableMoves and availableTakes must be reset
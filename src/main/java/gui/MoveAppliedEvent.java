@@ -0,0 +1,24 @@
+package main.java.gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// A JDK Flight Recorder event for each move made on the displayed board, by a human or the AI
+// Its duration is the time taken to update the Board and move the pieces on screen
+@Name("checkers.MoveApplied")
+@Label("Move Applied")
+@Category({"Checkers", "GUI"})
+@Description("A move being made on the board and displayed")
+class MoveAppliedEvent extends jdk.jfr.Event {
+
+    @Label("Player")
+    String player;
+
+    @Label("Move")
+    String move;
+
+    @Label("Human")
+    boolean human;
+}
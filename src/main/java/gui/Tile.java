@@ -1,14 +1,9 @@
 package main.java.gui;
 
 
-import java.util.HashMap;
-import java.util.Optional;
-
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Rectangle;
-import main.java.impl.Board;
-import main.java.impl.Position;
 import main.java.impl.Side;
 import main.java.impl.TileType;
 
@@ -20,14 +15,8 @@ public class Tile extends Rectangle {
     public static final int HEIGHT = 70;
     public static final int WIDTH = 70;
 
-    public static final String TL = "tl";
-    public static final String TR = "tr";
-    public static final String BL = "bl";
-    public static final String BR = "br";
-
     private final int posX;
     private final int posY;
-    private final HashMap<String, Optional<Position>> surrounding;
 
     // Represents the colour of the tile
     private final TileType type;
@@ -41,37 +30,6 @@ public class Tile extends Rectangle {
         this.type = type;
         piece = null;
 
-        surrounding = new HashMap<>();
-
-        // This section populates the 'surrounding' HashMap with pointers
-        // to surrounding tiles so that every tile has information about
-        // its surrounding tiles
-
-        // This is used when finding valid moves and takes
-        if (posX!=0 && posY!= 0) {
-            surrounding.put(TL, Optional.of(new Position(posX-1, posY-1)));
-        } else {
-            surrounding.put(TL, Optional.empty());
-        }
-
-        if (posX!= Board.HEIGHT-1 && posY!=0) {
-            surrounding.put(TR, Optional.of(new Position(posX+1, posY-1)));
-        } else {
-            surrounding.put(TR, Optional.empty());
-        }
-
-        if (posX!= 0 && posY!=Board.HEIGHT-1) {
-            surrounding.put(BL, Optional.of(new Position(posX-1, posY+1)));
-        } else {
-            surrounding.put(BL, Optional.empty());
-        }
-
-        if (posX != Board.WIDTH-1 && posY!=Board.HEIGHT-1) {
-            surrounding.put(BR, Optional.of(new Position(posX+1, posY+1)));
-        } else {
-            surrounding.put(BR, Optional.empty());
-        }
-
         // The size of each rectangle
         setHeight(HEIGHT);
         setWidth(WIDTH);
@@ -116,14 +74,9 @@ public class Tile extends Rectangle {
         this.piece = null;
     }
 
-    // return the surrounding tiles for the tile
-    public HashMap<String, Optional<Position>> getSurrounding() {
-        return surrounding;
-    }
-
 //   @Override
 //   public String toString() {
-//       return "Tile [" + posX + ", " + posY + ", " + surrounding.toString() + ", " + hasPiece() + ", " + piece + "]";
+//       return "Tile [" + posX + ", " + posY + ", " + hasPiece() + ", " + piece + "]";
 //   }
 
     @Override
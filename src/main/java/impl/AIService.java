@@ -0,0 +1,210 @@
+package main.java.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs an Engine's searches on a thread of their own, so that whoever asks for a move (the JavaFX
+// application thread) never waits for one. Each request returns a CompletableFuture that completes
+// with the move once the search has finished
+//
+// Searches run one at a time, in the order they were asked for. Cancelling a request stops its
+// search straight away, and a request cancelled before its search has started is never searched
+//
+// Pondering: while the opponent is thinking the AI can search the position it expects to be in
+// after the opponent's reply (see ponder). If the opponent plays that reply, the search already
+// running becomes the AI's move search, and the time spent pondering counts towards its time budget,
+// so the move is usually ready at once. If not, pondering is stopped, but the results it left in
+// the transposition table still help the new search wherever the positions overlap
+//
+// Every search is numbered with a generation, and a stop is only passed on to the engine while the
+// search it was meant for is the one running (see stopSearch). A stop that comes late, after its
+// search has finished, can then never stop the next search instead
+public class AIService {
+
+    // Pondering has no time limit, it runs until the opponent moves
+    private static final long PONDER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Engine engine;
+    private final ExecutorService executor;
+
+    // The request being searched or waiting to be searched most recently, its task on the executor
+    // and its generation
+    private CompletableFuture<SearchResult> current;
+    private Future<?> currentTask;
+    private long currentGeneration;
+    private long generation;
+
+    // The generation of the search the engine is running, 0 if none. Guarded by engineLock, which is
+    // also held while stopping the engine, so a search can't start between the check and the stop
+    private final Object engineLock = new Object();
+    private long searching;
+
+    // The position being pondered and when, in System.nanoTime, pondering started. Null if not pondering
+    private BitBoard ponderPosition;
+    private long ponderStartNanos;
+
+    private long ponderHits;
+    private long ponderMisses;
+
+    public AIService(Engine engine) {
+        this.engine = engine;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Asks for the best move for a position, searching for at most the given time
+    // The position is copied, so it can be changed as soon as this returns
+    // Cancelling the returned future stops the search
+    // If the position is the one being pondered, the pondering search is used and has the rest of
+    // the time budget left to finish, otherwise any pondering is stopped first
+    public synchronized CompletableFuture<SearchResult> findMove(BitBoard position, long millis) {
+        if (ponderPosition != null) {
+            if (isPonderingOn(position)) {
+                return ponderHit(millis);
+            }
+            ponderMisses++;
+            cancel();
+        }
+        return search(position, millis);
+    }
+
+    // Starts searching a position the AI expects to be asked about next, e.g. the position after
+    // the opponent's predicted reply, and keeps searching it until findMove or cancel is called
+    public synchronized void ponder(BitBoard position) {
+        cancel();
+        search(position, PONDER_MILLIS);
+        ponderPosition = position.copy();
+        ponderStartNanos = System.nanoTime();
+    }
+
+    // Return whether the position is the one being pondered
+    public synchronized boolean isPonderingOn(BitBoard position) {
+        return ponderPosition != null && ponderPosition.equals(position);
+    }
+
+    // Stops the pondering search once the time budget, counted from when pondering started, is used up
+    private CompletableFuture<SearchResult> ponderHit(long millis) {
+        ponderHits++;
+        ponderPosition = null;
+        long hitGeneration = currentGeneration;
+        Future<?> task = currentTask;
+        long remaining = Math.max(0, millis - (System.nanoTime() - ponderStartNanos) / 1_000_000);
+        CompletableFuture.delayedExecutor(remaining, TimeUnit.MILLISECONDS)
+                .execute(() -> stopSearch(hitGeneration, task));
+        return current;
+    }
+
+    private CompletableFuture<SearchResult> search(BitBoard position, long millis) {
+        BitBoard root = position.copy();
+        long requestGeneration = ++generation;
+        CompletableFuture<SearchResult> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            synchronized (engineLock) {
+                if (result.isDone()) {
+                    return;
+                }
+                searching = requestGeneration;
+            }
+            try {
+                int move = engine.findBestMoveWithin(root, millis);
+                result.complete(new SearchResult(move, engine.getBestVictims(), engine.getCompletedDepth(),
+                        engine.getNodes(), engine.getStats().getSummary(), engine.getPrincipalVariation()));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (engineLock) {
+                    searching = 0;
+                }
+            }
+        });
+        // Whoever cancelled the future isn't kept waiting for the search to stop
+        result.whenComplete((move, error) -> {
+            if (error instanceof CancellationException) {
+                CompletableFuture.runAsync(() -> stopSearch(requestGeneration, task));
+            }
+        });
+        current = result;
+        currentTask = task;
+        currentGeneration = requestGeneration;
+        return result;
+    }
+
+    // Cancels the latest request, or pondering, and waits for its search to stop, which takes no more
+    // than a few milliseconds. The engine is free for the next request once this returns
+    public void cancel() {
+        CompletableFuture<SearchResult> result;
+        Future<?> task;
+        long cancelled;
+        synchronized (this) {
+            result = current;
+            task = currentTask;
+            cancelled = currentGeneration;
+            current = null;
+            currentTask = null;
+            ponderPosition = null;
+        }
+        if (result == null) {
+            return;
+        }
+        result.cancel(false);
+        stopSearch(cancelled, task);
+    }
+
+    // Stops the search of the given generation and waits for its task to finish
+    // A stop that arrives just before the engine starts searching would be missed, as starting a search
+    // clears the engine's stop, so it is repeated until the task has finished. The engine is only
+    // stopped while that generation is searching, so no other search is stopped by mistake
+    private void stopSearch(long stopGeneration, Future<?> task) {
+        while (true) {
+            synchronized (engineLock) {
+                if (searching == stopGeneration) {
+                    engine.stop();
+                }
+            }
+            try {
+                task.get(1, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // Still searching, stop it again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                return;
+            }
+        }
+    }
+
+    // Return whether a search is running or waiting to run
+    public synchronized boolean isBusy() {
+        return currentTask != null && !currentTask.isDone();
+    }
+
+    // Return how many times the position being pondered was the one asked about
+    public synchronized long getPonderHits() {
+        return ponderHits;
+    }
+
+    public synchronized long getPonderMisses() {
+        return ponderMisses;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    // Cancels any search and stops the search thread. The service can't be used after this
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
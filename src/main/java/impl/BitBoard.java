@@ -0,0 +1,437 @@
+package main.java.impl;
+
+// BitBoard is a compact state representation of the board that is used by the AI when searching.
+// Pieces can only ever sit on the 32 brown tiles so each brown tile is given a square number
+// from 0 to 31, counting left to right along each row starting from the top of the board (y = 0).
+// The position is then stored as three bit masks over those squares:
+// * black - squares occupied by black (BOTTOM) pieces
+// * red - squares occupied by red (TOP) pieces
+// * kings - squares occupied by a king of either colour
+// Unlike Board, none of this touches Tile or Piece objects, so it is cheap to copy and update
+// Moves are made and undone in constant time. Each move made pushes what is needed to reverse it
+// (the move, the pieces it took, which of those were kings, the old score and the old quiet move count)
+// onto a fixed size undo stack
+// The hashes of earlier positions are kept on a history stack, pushed and popped as moves are made and
+// undone, to spot repeated positions (see isDraw). Copies of a position keep the part of the history a
+// repetition can still come from, so the AI's search knows which positions the game has already been through
+// The position also keeps a Zobrist hash of itself up to date as pieces move (see Zobrist), and the total
+// value of its pieces under an Evaluation, so that evaluating it is a single read
+public class BitBoard {
+
+    // Number of squares that can hold a piece
+    public static final int SQUARES = 32;
+
+    // The most moves that can be made on a position before they are undone
+    public static final int MAX_UNDO = 1024;
+
+    // A game is drawn once this many moves in a row have been made without a take or a man moving
+    public static final int DEFAULT_DRAW_PLIES = 80;
+
+    // Number of playable squares on each row
+    public static final int SQUARES_PER_ROW = Board.WIDTH / 2;
+
+    private int black;
+    private int red;
+    private int kings;
+
+    // The side that is due to make the next move
+    private Side sideToMove;
+
+    // Zobrist hash of the position
+    private long hash;
+
+    // The weights the position is scored with, and the total value of its pieces from black's point of view
+    private Evaluation evaluation;
+    private int score;
+
+    // Undo stack
+    private final int[] undoMoves;
+    private final int[] undoVictims;
+    private final int[] undoKingVictims;
+    private final int[] undoScores;
+    private final int[] undoQuietPlies;
+    private int undoSize;
+
+    // Hashes of the positions before this one, most recent last. Copies carry up to MAX_UNDO of them over,
+    // and up to MAX_UNDO more can be pushed by moves
+    private final long[] history;
+    private int historySize;
+
+    // Number of moves in a row made without a take or a man moving. Such moves can't be reversed, so
+    // a position can only repeat one reached since the last of them
+    private int quietPlies;
+
+    // The number of quiet moves in a row that draws the game
+    private int drawPlies;
+
+    // Creates an empty position with black to move
+    public BitBoard() {
+        this(0, 0, 0, Side.BOTTOM);
+    }
+
+    public BitBoard(int black, int red, int kings, Side sideToMove) {
+        this(black, red, kings, sideToMove, Evaluation.DEFAULT);
+    }
+
+    public BitBoard(int black, int red, int kings, Side sideToMove, Evaluation evaluation) {
+        this.black = black;
+        this.red = red;
+        this.kings = kings;
+        this.sideToMove = sideToMove;
+        undoMoves = new int[MAX_UNDO];
+        undoVictims = new int[MAX_UNDO];
+        undoKingVictims = new int[MAX_UNDO];
+        undoScores = new int[MAX_UNDO];
+        undoQuietPlies = new int[MAX_UNDO];
+        undoSize = 0;
+        history = new long[2 * MAX_UNDO];
+        historySize = 0;
+        quietPlies = 0;
+        drawPlies = DEFAULT_DRAW_PLIES;
+        hash = computeHash();
+        this.evaluation = evaluation;
+        score = evaluation.valueOf(black, red, kings);
+    }
+
+    // Returns the standard starting position
+    // Red occupies the top three rows, black the bottom three and black moves first
+    public static BitBoard initial() {
+        return new BitBoard(0xFFF00000, 0x00000FFF, 0, Side.BOTTOM);
+    }
+
+    // Returns a copy of this position
+    // Moves made before the copy can't be undone on the copy, but it keeps their history
+    public BitBoard copy() {
+        BitBoard copy = new BitBoard(black, red, kings, sideToMove, evaluation);
+        copy.copyHistoryFrom(this);
+        return copy;
+    }
+
+    // Overwrites this position with another one without allocating
+    // The undo stack is emptied, but the history is kept
+    public void copyFrom(BitBoard other) {
+        black = other.black;
+        red = other.red;
+        kings = other.kings;
+        sideToMove = other.sideToMove;
+        hash = other.hash;
+        evaluation = other.evaluation;
+        score = other.score;
+        undoSize = 0;
+        copyHistoryFrom(other);
+    }
+
+    // Takes over the hashes of the other position's history since its last take or man move
+    private void copyHistoryFrom(BitBoard other) {
+        int size = Math.min(Math.min(other.quietPlies, other.historySize), MAX_UNDO);
+        System.arraycopy(other.history, other.historySize - size, history, 0, size);
+        historySize = size;
+        quietPlies = other.quietPlies;
+        drawPlies = other.drawPlies;
+    }
+
+    // Overwrites this position with the given pieces without allocating
+    // The undo stack is emptied
+    public void setPosition(int black, int red, int kings, Side sideToMove) {
+        this.black = black;
+        this.red = red;
+        this.kings = kings;
+        this.sideToMove = sideToMove;
+        hash = computeHash();
+        score = evaluation.valueOf(black, red, kings);
+        undoSize = 0;
+        historySize = 0;
+        quietPlies = 0;
+    }
+
+    // Returns the square number for board coordinates, or -1 if the tile can't hold a piece
+    public static int squareOf(int x, int y) {
+        if (x < 0 || y < 0 || x >= Board.WIDTH || y >= Board.HEIGHT || (x + y) % 2 == 0) {
+            return -1;
+        }
+        return y * SQUARES_PER_ROW + x / 2;
+    }
+
+    public static int squareOf(Position position) {
+        return squareOf(position.getX(), position.getY());
+    }
+
+    // Returns the x coordinate of a square
+    // Even rows start with a yellow tile so their brown tiles are shifted right by one
+    public static int xOf(int square) {
+        return 2 * (square % SQUARES_PER_ROW) + (yOf(square) % 2 == 0 ? 1 : 0);
+    }
+
+    // Returns the y coordinate of a square
+    public static int yOf(int square) {
+        return square / SQUARES_PER_ROW;
+    }
+
+    public static Position positionOf(int square) {
+        return new Position(xOf(square), yOf(square));
+    }
+
+    // Return the mask of squares occupied by the given side
+    public int getPieces(Side side) {
+        return side == Side.BOTTOM ? black : red;
+    }
+
+    public int getBlack() {
+        return black;
+    }
+
+    public int getRed() {
+        return red;
+    }
+
+    public int getKings() {
+        return kings;
+    }
+
+    // Return the mask of squares occupied by any piece
+    public int getOccupied() {
+        return black | red;
+    }
+
+    // Return the mask of squares that are free to move to
+    public int getEmpty() {
+        return ~(black | red);
+    }
+
+    public Side getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(Side sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            hash ^= Zobrist.sideKey();
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    // Return the Zobrist hash of the position
+    public long getHash() {
+        return hash;
+    }
+
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    // Changes the weights the position is scored with
+    public void setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+        score = evaluation.valueOf(black, red, kings);
+    }
+
+    // Return the total value of the pieces on the board from black's point of view
+    public int getScore() {
+        return score;
+    }
+
+    // Return the number of pieces the given side has left
+    public int pieceCount(Side side) {
+        return Integer.bitCount(getPieces(side));
+    }
+
+    // Return the number of kings the given side has
+    public int kingCount(Side side) {
+        return Integer.bitCount(getPieces(side) & kings);
+    }
+
+    public boolean hasPiece(int square) {
+        return ((black | red) & (1 << square)) != 0;
+    }
+
+    public boolean isKing(int square) {
+        return (kings & (1 << square)) != 0;
+    }
+
+    // Return the side owning the piece on a square, or null if the square is empty
+    public Side sideAt(int square) {
+        if ((black & (1 << square)) != 0) {
+            return Side.BOTTOM;
+        } else if ((red & (1 << square)) != 0) {
+            return Side.TOP;
+        }
+        return null;
+    }
+
+    // Place a piece on a square, replacing anything that was there
+    public void setPiece(int square, Side side, boolean isKing) {
+        removePiece(square);
+        hash ^= Zobrist.pieceKey(side, isKing, square);
+        score += evaluation.pieceValue(Zobrist.kindOf(side, isKing), square);
+        int bit = 1 << square;
+        if (side == Side.BOTTOM) {
+            black |= bit;
+        } else {
+            red |= bit;
+        }
+        if (isKing) {
+            kings |= bit;
+        }
+    }
+
+    // Remove whatever piece is on a square
+    public void removePiece(int square) {
+        if (hasPiece(square)) {
+            hash ^= Zobrist.pieceKey(sideAt(square), isKing(square), square);
+            score -= evaluation.pieceValue(Zobrist.kindOf(sideAt(square), isKing(square)), square);
+        }
+        int mask = ~(1 << square);
+        black &= mask;
+        red &= mask;
+        kings &= mask;
+    }
+
+    // Makes the necessary state updates given a packed move and the squares it takes
+    // A chain of takes is made all at once, after which it is the other side's turn
+    public void makeMove(int move, int victims) {
+        int fromBit = 1 << PackedMove.from(move);
+        int toBit = 1 << PackedMove.to(move);
+        boolean wasKing = (kings & fromBit) != 0;
+        boolean isKing = wasKing || PackedMove.isPromotion(move);
+        int movedKing = isKing ? toBit : 0;
+
+        undoMoves[undoSize] = move;
+        undoVictims[undoSize] = victims;
+        undoKingVictims[undoSize] = kings & victims;
+        undoScores[undoSize] = score;
+        undoQuietPlies[undoSize] = quietPlies;
+        undoSize++;
+        history[historySize++] = hash;
+        quietPlies = victims == 0 && wasKing ? quietPlies + 1 : 0;
+
+        Side opponent = MoveGenerator.opposite(sideToMove);
+        int opponentMan = Zobrist.kindOf(opponent, false);
+        int opponentKing = Zobrist.kindOf(opponent, true);
+        hash ^= Zobrist.pieceKey(sideToMove, wasKing, PackedMove.from(move))
+                ^ Zobrist.pieceKey(sideToMove, isKing, PackedMove.to(move))
+                ^ Zobrist.maskKey(opponentMan, victims & ~kings)
+                ^ Zobrist.maskKey(opponentKing, victims & kings)
+                ^ Zobrist.sideKey();
+        score += evaluation.pieceValue(Zobrist.kindOf(sideToMove, isKing), PackedMove.to(move))
+                - evaluation.pieceValue(Zobrist.kindOf(sideToMove, wasKing), PackedMove.from(move));
+        if (victims != 0) {
+            score -= evaluation.maskValue(opponentMan, victims & ~kings)
+                    + evaluation.maskValue(opponentKing, victims & kings);
+        }
+
+        if (sideToMove == Side.BOTTOM) {
+            black = (black & ~fromBit) | toBit;
+            red &= ~victims;
+        } else {
+            red = (red & ~fromBit) | toBit;
+            black &= ~victims;
+        }
+        kings = (kings & ~fromBit & ~victims) | movedKing;
+        sideToMove = opponent;
+    }
+
+    // Reverses the last move made, restoring any pieces it took and removing any king conversion
+    public void undoMove() {
+        undoSize--;
+        int move = undoMoves[undoSize];
+        int victims = undoVictims[undoSize];
+        int fromBit = 1 << PackedMove.from(move);
+        int toBit = 1 << PackedMove.to(move);
+        int wasKing = (kings & toBit) != 0 && !PackedMove.isPromotion(move) ? fromBit : 0;
+
+        sideToMove = MoveGenerator.opposite(sideToMove);
+        if (sideToMove == Side.BOTTOM) {
+            black = (black & ~toBit) | fromBit;
+            red |= victims;
+        } else {
+            red = (red & ~toBit) | fromBit;
+            black |= victims;
+        }
+        kings = (kings & ~toBit) | wasKing | undoKingVictims[undoSize];
+        hash = history[--historySize];
+        score = undoScores[undoSize];
+        quietPlies = undoQuietPlies[undoSize];
+    }
+
+    // Return the number of moves that can currently be undone
+    public int getUndoSize() {
+        return undoSize;
+    }
+
+    // Return the number of moves in a row made without a take or a man moving
+    public int getQuietPlies() {
+        return quietPlies;
+    }
+
+    public int getDrawPlies() {
+        return drawPlies;
+    }
+
+    // Changes the number of quiet moves in a row (see getQuietPlies) that draws the game
+    public void setDrawPlies(int drawPlies) {
+        this.drawPlies = drawPlies;
+    }
+
+    // Return the number of times this position, with the same side to move, has been reached before
+    // Only positions since the last take or man move can match, and only every other one has the
+    // same side to move
+    public int repetitions() {
+        int count = 0;
+        int oldest = historySize - Math.min(quietPlies, historySize);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (history[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Return whether the game is drawn: the position has been reached for the third time, or
+    // drawPlies moves in a row have been made without a take or a man moving
+    public boolean isDraw() {
+        return repetitions() >= 2 || quietPlies >= drawPlies;
+    }
+
+    // Hashes the whole position from scratch
+    private long computeHash() {
+        long key = Zobrist.maskKey(Zobrist.BLACK_MAN, black & ~kings)
+                ^ Zobrist.maskKey(Zobrist.BLACK_KING, black & kings)
+                ^ Zobrist.maskKey(Zobrist.RED_MAN, red & ~kings)
+                ^ Zobrist.maskKey(Zobrist.RED_KING, red & kings);
+        return sideToMove == Side.TOP ? key ^ Zobrist.sideKey() : key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitBoard)) return false;
+        BitBoard other = (BitBoard) o;
+        return black == other.black && red == other.red && kings == other.kings && sideToMove == other.sideToMove;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Draws the position in the same style as Board.printAsGrid
+    // Black pieces are O, red pieces are X and kings are upper case
+    @Override
+    public String toString() {
+        StringBuilder rows = new StringBuilder();
+        for (int y = 0; y < Board.HEIGHT; y++) {
+            for (int x = 0; x < Board.WIDTH; x++) {
+                int square = squareOf(x, y);
+                if (square == -1 || !hasPiece(square)) {
+                    rows.append(' ');
+                } else if (sideAt(square) == Side.BOTTOM) {
+                    rows.append(isKing(square) ? 'O' : 'o');
+                } else {
+                    rows.append(isKing(square) ? 'X' : 'x');
+                }
+                rows.append('\t');
+            }
+            rows.append('\n');
+        }
+        return rows + "To move: " + sideToMove;
+    }
+}
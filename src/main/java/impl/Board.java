@@ -1,13 +1,7 @@
 package main.java.impl;
 
-import static main.java.gui.Tile.BL;
-import static main.java.gui.Tile.BR;
-import static main.java.gui.Tile.TL;
-import static main.java.gui.Tile.TR;
-
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import main.java.gui.Piece;
@@ -36,7 +30,9 @@ public class Board {
 
     // Makes the necessary state updates given a move
     public void acceptMove(Move move) {
-        if (move instanceof Take) {
+        if (move instanceof TakeSequence) {
+            ((TakeSequence) move).getTargets().forEach(target -> removePieceAt(target.getPosition()));
+        } else if (move instanceof Take) {
             Take take = (Take) move;
             Piece target = take.getTarget();
             removePieceAt(target.getPosition());
@@ -117,32 +113,16 @@ public class Board {
     // Given a list of pieces, for each piece, find all possible places it can move to
     // This method takes into account the surround area of each piece and adds each surrounding
     // area regardless of whether that area is already occupied. However it takes into account
-    // when pieces are near the edge of the board by assigning non-existent destinations with Optional.EMPTY
+    // when pieces are near the edge of the board by skipping steps that the lookup table marks as -1
     private ArrayList<Move> findPossibleDestinationsForPieces(List<Piece> pieces) {
         ArrayList<Move> possibleMoves = new ArrayList<>();
         pieces.forEach((piece) -> {
-            if (!piece.isKing()) {
-                if (piece.getSide() == Side.BOTTOM) {
-                    tileAt(piece.getPosition()).getSurrounding().get(TL)
-                            .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                    tileAt(piece.getPosition()).getSurrounding().get(TR)
-                            .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                } else {
-                    tileAt(piece.getPosition()).getSurrounding().get(BL)
-                            .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                    tileAt(piece.getPosition()).getSurrounding().get(BR)
-                            .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
+            int square = BitBoard.squareOf(piece.getPosition());
+            for (int direction : Neighbours.directionsFor(piece.getSide(), piece.isKing())) {
+                int dest = Neighbours.step(square, direction);
+                if (dest != -1) {
+                    possibleMoves.add(new Move(piece, Neighbours.positionOf(dest)));
                 }
-            } else {
-                tileAt(piece.getPosition()).getSurrounding().get(TL)
-                        .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                tileAt(piece.getPosition()).getSurrounding().get(TR)
-                        .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                tileAt(piece.getPosition()).getSurrounding().get(BL)
-                        .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-                tileAt(piece.getPosition()).getSurrounding().get(BR)
-                        .ifPresent(position -> possibleMoves.add(new Move(piece, position)));
-
             }
         });
         return possibleMoves;
@@ -154,66 +134,38 @@ public class Board {
         ArrayList<Take> takes = new ArrayList<>();
 
         pieces.forEach((piece -> {
-            Tile currentTile = tileAt(piece.getPosition());
-            Map<String, Optional<Position>> surroundingTiles = currentTile.getSurrounding();
-            Side side = piece.getSide();
-            boolean isKing = piece.isKing();
-
-            if (!isKing) {
-                if (side == Side.BOTTOM) {
-                    if (potentialTake(surroundingTiles, TL)) {
-                        getTakeIfAny(piece, surroundingTiles, TL).ifPresent(takes::add);
-                    }
-                    if (potentialTake(surroundingTiles, TR)) {
-                        getTakeIfAny(piece, surroundingTiles, TR).ifPresent(takes::add);
-                    }
-                } else {
-                    if (potentialTake(surroundingTiles, BL)) {
-                        getTakeIfAny(piece, surroundingTiles, BL).ifPresent(takes::add);
-                    }
-                    if (potentialTake(surroundingTiles, BR)) {
-                        getTakeIfAny(piece, surroundingTiles, BR).ifPresent(takes::add);
-                    }
-                }
-            } else {
-                if (potentialTake(surroundingTiles, TL)) {
-                    getTakeIfAny(piece, surroundingTiles, TL).ifPresent(takes::add);
-                }
-                if (potentialTake(surroundingTiles, TR)) {
-                    getTakeIfAny(piece, surroundingTiles, TR).ifPresent(takes::add);
-                }
-                if (potentialTake(surroundingTiles, BL)) {
-                    getTakeIfAny(piece, surroundingTiles, BL).ifPresent(takes::add);
-                }
-                if (potentialTake(surroundingTiles, BR)) {
-                    getTakeIfAny(piece, surroundingTiles, BR).ifPresent(takes::add);
+            int square = BitBoard.squareOf(piece.getPosition());
+            for (int direction : Neighbours.directionsFor(piece.getSide(), piece.isKing())) {
+                if (potentialTake(square, direction)) {
+                    getTakeIfAny(piece, square, direction).ifPresent(takes::add);
                 }
             }
         }));
         return takes;
     }
 
-    // Given a piece, its surrounding tiles and a nearby square to search (either TL, TR, BL, BR)
-    // return the force take associated with that square, if any
-    private Optional<Take> getTakeIfAny(Piece piece, Map<String, Optional<Position>> surrounding, String nearby) {
-        Piece potentialOpponent = tileAt(surrounding.get(nearby).get()).getPiece();
+    // Given a piece, its square and a direction to search (either TL, TR, BL, BR)
+    // return the force take associated with that direction, if any
+    private Optional<Take> getTakeIfAny(Piece piece, int square, int direction) {
+        Piece potentialOpponent = tileAt(Neighbours.step(square, direction)).getPiece();
 
-        if (potentialOpponent.getSide() != piece.getSide() && pieceIsVulnerable(potentialOpponent, nearby)) {
-            return Optional.of(new Take(piece, tileAt(potentialOpponent.getPosition()).getSurrounding().get(nearby).get(), potentialOpponent));
+        if (potentialOpponent.getSide() != piece.getSide() && pieceIsVulnerable(square, direction)) {
+            return Optional.of(new Take(piece, Neighbours.positionOf(Neighbours.jump(square, direction)), potentialOpponent));
         }
         return Optional.empty();
     }
 
-    // If a square exists at a nearby (either TL, TR, BL, BR) position and has a piece
+    // If a square exists in the given direction (either TL, TR, BL, BR) and has a piece
     // then return true, else false
-    private boolean potentialTake(Map<String, Optional<Position>> surrounding, String nearBy) {
-        return surrounding.get(nearBy).isPresent() && tileAt(surrounding.get(nearBy).get()).hasPiece();
+    private boolean potentialTake(int square, int direction) {
+        int nearby = Neighbours.step(square, direction);
+        return nearby != -1 && tileAt(nearby).hasPiece();
     }
 
-    // If a potential opponent's TL, TR, BL or BR is empty then this piece is vulnerable to a take
-    private boolean pieceIsVulnerable(Piece potentialOpponent, String near) {
-        return tileAt(potentialOpponent.getPosition()).getSurrounding().get(near).isPresent() &&
-                !tileAt(tileAt(potentialOpponent.getPosition()).getSurrounding().get(near).get()).hasPiece();
+    // If the square beyond a potential opponent is on the board and empty then that opponent is vulnerable to a take
+    private boolean pieceIsVulnerable(int square, int direction) {
+        int landing = Neighbours.jump(square, direction);
+        return landing != -1 && !tileAt(landing).hasPiece();
     }
 
     // Stops pieces from moving off of the board
@@ -275,11 +227,89 @@ public class Board {
         System.out.println();
     }
 
+    // Converts the pieces on this board into a BitBoard so the AI can search
+    // without touching any Tile or Piece objects
+    public BitBoard toBitBoard(Side sideToMove) {
+        BitBoard position = new BitBoard();
+        position.setSideToMove(sideToMove);
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            Tile tile = tileAt(square);
+            if (tile.hasPiece()) {
+                position.setPiece(square, tile.getPiece().getSide(), tile.getPiece().isKing());
+            }
+        }
+        return position;
+    }
+
+    // Converts a packed move found by the AI, and the squares it takes, into the Move or
+    // TakeSequence it represents on this board
+    public Move toMove(int move, int victims) {
+        Piece piece = tileAt(PackedMove.from(move)).getPiece();
+        if (!PackedMove.isCapture(move)) {
+            return new Move(piece, Neighbours.positionOf(PackedMove.to(move)));
+        }
+
+        List<Position> path = new ArrayList<>();
+        List<Piece> targets = new ArrayList<>();
+        findPath(piece, PackedMove.from(move), PackedMove.to(move), victims, path, targets);
+        return new TakeSequence(piece, path, targets);
+    }
+
+    // Works out the order of the jumps in a chain of takes by following the victims from the given square
+    // Returns true once every victim has been jumped and the chain has ended on the destination
+    private boolean findPath(Piece piece, int square, int dest, int remaining, List<Position> path, List<Piece> targets) {
+        if (remaining == 0) {
+            return square == dest;
+        }
+        for (int direction : Neighbours.directionsFor(piece.getSide(), piece.isKing())) {
+            int over = Neighbours.step(square, direction);
+            int landing = Neighbours.jump(square, direction);
+            if (landing == -1 || (remaining & (1 << over)) == 0 ||
+                    (tileAt(landing).hasPiece() && tileAt(landing).getPiece() != piece)) {
+                continue;
+            }
+
+            path.add(Neighbours.positionOf(landing));
+            targets.add(tileAt(over).getPiece());
+            if (findPath(piece, landing, dest, remaining & ~(1 << over), path, targets)) {
+                return true;
+            }
+            path.remove(path.size() - 1);
+            targets.remove(targets.size() - 1);
+        }
+        return false;
+    }
+
+    // Creates a piece on this board for every piece in the given BitBoard
+    // The board is expected to be empty and the new pieces are returned so they can be displayed
+    public List<Piece> placePieces(BitBoard position) {
+        List<Piece> placed = new ArrayList<>();
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            Side side = position.sideAt(square);
+            if (side != null) {
+                PieceType type = side == Side.BOTTOM ? PieceType.BLACK : PieceType.RED;
+                Piece piece = new Piece(BitBoard.xOf(square), BitBoard.yOf(square), type, side);
+                if (position.isKing(square)) {
+                    piece.makeKing();
+                    piece.animateKingConversion();
+                }
+                tileAt(square).setPiece(piece);
+                placed.add(piece);
+            }
+        }
+        return placed;
+    }
+
     // Returns the tile at a specified position
     public Tile tileAt(Position pos) {
         return state[pos.getX()][pos.getY()];
     }
 
+    // Returns the tile for a BitBoard square
+    private Tile tileAt(int square) {
+        return state[BitBoard.xOf(square)][BitBoard.yOf(square)];
+    }
+
     // removes a piece from a tile at a specified position
     private void removePieceAt(Position pos) {
         tileAt(pos).removePiece();
@@ -0,0 +1,9 @@
+package main.java.impl;
+
+// Describes how a score stored in the transposition table relates to the real score of the position
+// * EXACT - the score is the real score
+// * LOWER - the search was cut off, so the real score is at least this score
+// * UPPER - no move reached alpha, so the real score is at most this score
+public enum Bound {
+    EXACT, LOWER, UPPER
+}
@@ -0,0 +1,33 @@
+package main.java.impl;
+
+// Something that can choose the AI's move for a BitBoard position
+// Moves are returned as PackedMove ints, with the squares they take available from getBestVictims
+public interface Engine {
+
+    // Searches to a fixed depth and returns the best move, or PackedMove.NONE if there are no moves
+    int findBestMove(BitBoard root, int depth);
+
+    // Searches for as long as the time budget allows and returns the best move, or PackedMove.NONE
+    int findBestMoveWithin(BitBoard root, long millis);
+
+    // Gives the search a tablebase to answer positions with few pieces left, or null for none
+    void setTablebase(Tablebase tablebase);
+
+    // Asks a running search to stop as soon as possible
+    void stop();
+
+    // Return the mask of squares taken by the best move of the last search
+    int getBestVictims();
+
+    // Return the best move of the last search followed by the moves it expects to be played after it
+    MoveList getPrincipalVariation();
+
+    // Return the depth of the deepest search completed by the last search
+    int getCompletedDepth();
+
+    // Return the number of positions visited by the last search
+    long getNodes();
+
+    // Return what the last search did: its nodes, cut offs, transposition table hits, iterations and so on
+    SearchStats getStats();
+}
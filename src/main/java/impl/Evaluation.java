@@ -0,0 +1,158 @@
+package main.java.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// The weights of the AI's evaluation, precomputed into a piece-square table: the value of each
+// kind of piece (see Zobrist) on each square, from black's point of view, so red's values are negative
+// A piece's value is made up of:
+// * material - a man or a king
+// * advancement - men are worth more the further they are from their own back row, as they get closer to being crowned
+// * centre control - pieces on the four centre squares control more of the board
+// * back rank guards - men left on their own back row stop the opponent being crowned there
+// Kings aren't given advancement or back rank values, and get their own centre value
+// The side to move is also given a small tempo bonus
+//
+// BitBoard adds up the values of its pieces as they move, so evaluating a position only has to
+// read that total (see Search.evaluate)
+//
+// The weights can be loaded from a properties file, e.g.
+//   man=100
+//   king=130
+// and any weight not in the file keeps its default value
+public class Evaluation {
+
+    public static final int DEFAULT_MAN = 100;
+    public static final int DEFAULT_KING = 130;
+    public static final int DEFAULT_ADVANCEMENT = 3;
+    public static final int DEFAULT_CENTRE = 8;
+    public static final int DEFAULT_KING_CENTRE = 10;
+    public static final int DEFAULT_BACK_RANK = 10;
+    public static final int DEFAULT_TEMPO = 5;
+
+    public static final Evaluation DEFAULT = new Evaluation(DEFAULT_MAN, DEFAULT_KING, DEFAULT_ADVANCEMENT,
+            DEFAULT_CENTRE, DEFAULT_KING_CENTRE, DEFAULT_BACK_RANK, DEFAULT_TEMPO);
+
+    // Squares 13, 14, 17 and 18: the middle two playable squares of the middle two rows
+    private static final int CENTRE = (1 << 13) | (1 << 14) | (1 << 17) | (1 << 18);
+
+    private final int man;
+    private final int king;
+    private final int advancement;
+    private final int centre;
+    private final int kingCentre;
+    private final int backRank;
+    private final int tempo;
+
+    private final int[][] pieceSquare;
+
+    public Evaluation(int man, int king, int advancement, int centre, int kingCentre, int backRank, int tempo) {
+        this.man = man;
+        this.king = king;
+        this.advancement = advancement;
+        this.centre = centre;
+        this.kingCentre = kingCentre;
+        this.backRank = backRank;
+        this.tempo = tempo;
+
+        pieceSquare = new int[4][BitBoard.SQUARES];
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            boolean central = (CENTRE & (1 << square)) != 0;
+            // Black starts at the bottom, so its back row is y = 7 and it advances towards y = 0
+            int rowsAdvanced = Board.HEIGHT - 1 - BitBoard.yOf(square);
+            int manValue = man + advancement * rowsAdvanced
+                    + (central ? centre : 0)
+                    + (rowsAdvanced == 0 ? backRank : 0);
+            int kingValue = king + (central ? kingCentre : 0);
+
+            // Red's tables are black's turned round, as the board looks the same from red's side
+            int mirrored = BitBoard.SQUARES - 1 - square;
+            pieceSquare[Zobrist.BLACK_MAN][square] = manValue;
+            pieceSquare[Zobrist.BLACK_KING][square] = kingValue;
+            pieceSquare[Zobrist.RED_MAN][mirrored] = -manValue;
+            pieceSquare[Zobrist.RED_KING][mirrored] = -kingValue;
+        }
+    }
+
+    // Reads weights from a properties file. Weights missing from the file take their default values
+    public static Evaluation load(Path file) throws IOException {
+        Properties weights = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            weights.load(reader);
+        }
+        return new Evaluation(
+                weight(weights, "man", DEFAULT_MAN),
+                weight(weights, "king", DEFAULT_KING),
+                weight(weights, "advancement", DEFAULT_ADVANCEMENT),
+                weight(weights, "centre", DEFAULT_CENTRE),
+                weight(weights, "kingCentre", DEFAULT_KING_CENTRE),
+                weight(weights, "backRank", DEFAULT_BACK_RANK),
+                weight(weights, "tempo", DEFAULT_TEMPO));
+    }
+
+    private static int weight(Properties weights, String name, int defaultValue) {
+        String value = weights.getProperty(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // Return the value of a piece of the given kind on a square, from black's point of view
+    public int pieceValue(int kind, int square) {
+        return pieceSquare[kind][square];
+    }
+
+    // Return the total value of pieces of one kind on every square in a mask
+    public int maskValue(int kind, int mask) {
+        int[] values = pieceSquare[kind];
+        int total = 0;
+        while (mask != 0) {
+            total += values[Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return total;
+    }
+
+    // Return the total value of every piece in a position, from black's point of view
+    public int valueOf(int black, int red, int kings) {
+        return maskValue(Zobrist.BLACK_MAN, black & ~kings)
+                + maskValue(Zobrist.BLACK_KING, black & kings)
+                + maskValue(Zobrist.RED_MAN, red & ~kings)
+                + maskValue(Zobrist.RED_KING, red & kings);
+    }
+
+    public int getMan() {
+        return man;
+    }
+
+    public int getKing() {
+        return king;
+    }
+
+    public int getAdvancement() {
+        return advancement;
+    }
+
+    public int getCentre() {
+        return centre;
+    }
+
+    public int getKingCentre() {
+        return kingCentre;
+    }
+
+    public int getBackRank() {
+        return backRank;
+    }
+
+    public int getTempo() {
+        return tempo;
+    }
+
+    @Override
+    public String toString() {
+        return "man=" + man + " king=" + king + " advancement=" + advancement + " centre=" + centre
+                + " kingCentre=" + kingCentre + " backRank=" + backRank + " tempo=" + tempo;
+    }
+}
@@ -0,0 +1,160 @@
+package main.java.impl;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Lazy SMP: a multi-threaded search where every thread searches the whole tree from the root
+// The main thread searches exactly as a single Search would, while helper threads search the same
+// position alongside it. The threads don't talk to each other at all except through the transposition
+// table they share: helpers fill it with results and best moves that the main thread then doesn't
+// have to search itself. The move played is always the main thread's
+//
+// Half of the helpers start a ply deeper than the main thread so that the threads are mostly
+// searching different depths. Each helper also adds its own random noise to its move ordering
+// (see MoveOrdering) so that it tries normal moves in a different order from the other threads
+public class LazySmpSearch implements Engine {
+
+    // The most noise a helper adds to a history score. Enough to reorder moves with similar
+    // history, but not to bring a poor move ahead of a good one
+    private static final int HELPER_ORDERING_NOISE = 64;
+
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+    private final Future<?>[] running;
+    private final ExecutorService executor;
+
+    // The totals of every thread, with the main thread's iterations
+    private final SearchStats stats;
+
+    public LazySmpSearch(int threads) {
+        this(threads, new TranspositionTable());
+    }
+
+    public LazySmpSearch(int threads, TranspositionTable table) {
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[Math.max(0, threads - 1)];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table, new MoveOrdering(HELPER_ORDERING_NOISE, i + 1));
+        }
+        running = new Future<?>[helpers.length];
+        stats = new SearchStats();
+        executor = Executors.newFixedThreadPool(Math.max(1, helpers.length), runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int findBestMove(BitBoard root, int depth) {
+        startHelpers(root);
+        int move = main.findBestMove(root, depth);
+        stopHelpers();
+        return move;
+    }
+
+    @Override
+    public int findBestMoveWithin(BitBoard root, long millis) {
+        startHelpers(root);
+        int move = main.findBestMoveWithin(root, millis);
+        stopHelpers();
+        return move;
+    }
+
+    @Override
+    public void setTablebase(Tablebase tablebase) {
+        main.setTablebase(tablebase);
+        for (Search helper : helpers) {
+            helper.setTablebase(tablebase);
+        }
+    }
+
+    @Override
+    public void stop() {
+        main.stop();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    // Stops the helper threads. The search can't be used after this
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    private void startHelpers(BitBoard root) {
+        stats.start();
+        BitBoard position = root.copy();
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            int firstDepth = i % 2 == 0 ? 2 : 1;
+            running[i] = executor.submit(() -> helper.helpSearch(position, firstDepth));
+        }
+    }
+
+    // Stops every helper and waits for it to finish
+    // A helper that hasn't started searching yet would miss a single stop, so stop is repeated until it finishes
+    private void stopHelpers() {
+        stats.add(main.getStats());
+        stats.copyIterations(main.getStats());
+        for (int i = 0; i < helpers.length; i++) {
+            while (true) {
+                helpers[i].stop();
+                try {
+                    running[i].get(1, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // Not finished yet, stop it again
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Lazy SMP helper failed", e.getCause());
+                }
+            }
+            stats.add(helpers[i].getStats());
+        }
+        stats.finish();
+    }
+
+    @Override
+    public int getBestVictims() {
+        return main.getBestVictims();
+    }
+
+    @Override
+    public MoveList getPrincipalVariation() {
+        return main.getPrincipalVariation();
+    }
+
+    @Override
+    public int getCompletedDepth() {
+        return main.getCompletedDepth();
+    }
+
+    // Return the number of positions visited by all of the threads during the last search
+    @Override
+    public long getNodes() {
+        return stats.getNodes();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,162 @@
+package main.java.impl;
+
+// Finds the moves available in a BitBoard position and writes them into a MoveList as packed moves.
+// The same rules as Board are applied:
+// * men only move forward, kings move in any direction
+// * if a take is available then only takes may be made
+// * a man becomes a king when it reaches the far side of the board or when it takes a king
+// * a piece that makes a take must keep taking for as long as it can, unless it has just become a king
+// Every complete chain of takes is generated as a single move, so a double jump is one ply of the search.
+// When a chain can branch, each branch is a separate move
+// Nothing here allocates, so it is safe to call at every node of the search
+//
+// hasAnyMove and hasAnyTake answer whether a move exists without generating any. They step every piece
+// of the side to move at once in each direction with bit shifts (see Neighbours.stepAll), so they cost
+// the same few bit operations however many pieces there are
+public final class MoveGenerator {
+
+    // Squares on the row each side converts to kings on
+    private static final int BLACK_KING_ROW = 0x0000000F;
+    private static final int RED_KING_ROW = 0xF0000000;
+
+    private MoveGenerator() {
+    }
+
+    // Fill the list with every legal move for the side to move
+    public static void generate(BitBoard position, MoveList moves) {
+        moves.clear();
+        int pieces = position.getPieces(position.getSideToMove());
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            if ((pieces & (1 << square)) != 0) {
+                addTakes(position, square, moves);
+            }
+        }
+        if (!moves.isEmpty()) {
+            return;
+        }
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            if ((pieces & (1 << square)) != 0) {
+                addMoves(position, square, moves);
+            }
+        }
+    }
+
+    // Return whether the side to move has any legal move, take or not
+    // A side with no moves has lost
+    public static boolean hasAnyMove(BitBoard position) {
+        return hasAnyTake(position) || hasAnyStep(position);
+    }
+
+    // Return whether the side to move has a normal (non-take) move, whether or not a take is available
+    static boolean hasAnyStep(BitBoard position) {
+        int pieces = position.getPieces(position.getSideToMove());
+        int kings = pieces & position.getKings();
+        int empty = position.getEmpty();
+        for (int direction = 0; direction < Neighbours.DIRECTIONS; direction++) {
+            int movers = movesForward(position.getSideToMove(), direction) ? pieces : kings;
+            if ((Neighbours.stepAll(movers, direction) & empty) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Return whether the side to move has a take available, in which case only takes may be made
+    public static boolean hasAnyTake(BitBoard position) {
+        Side side = position.getSideToMove();
+        int pieces = position.getPieces(side);
+        int kings = pieces & position.getKings();
+        int opponents = position.getPieces(opposite(side));
+        int empty = position.getEmpty();
+        for (int direction = 0; direction < Neighbours.DIRECTIONS; direction++) {
+            int movers = movesForward(side, direction) ? pieces : kings;
+            int over = Neighbours.stepAll(movers, direction) & opponents;
+            if ((Neighbours.stepAll(over, direction) & empty) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Return whether men of a side can move in a direction. Black men move up the board and red men down
+    private static boolean movesForward(Side side, int direction) {
+        return side == Side.BOTTOM
+                ? direction == Neighbours.TL || direction == Neighbours.TR
+                : direction == Neighbours.BL || direction == Neighbours.BR;
+    }
+
+    // Return the opposing side
+    public static Side opposite(Side side) {
+        return side == Side.BOTTOM ? Side.TOP : Side.BOTTOM;
+    }
+
+    // Add the normal (non-take) moves for the piece on a square
+    private static void addMoves(BitBoard position, int square, MoveList moves) {
+        Side side = position.sideAt(square);
+        boolean isKing = position.isKing(square);
+        int empty = position.getEmpty();
+        for (int direction : Neighbours.directionsFor(side, isKing)) {
+            int dest = Neighbours.step(square, direction);
+            if (dest != -1 && (empty & (1 << dest)) != 0) {
+                moves.add(PackedMove.move(square, dest, !isKing && reachesKingRow(side, dest)));
+            }
+        }
+    }
+
+    // Add every chain of takes available to the piece on a square
+    private static void addTakes(BitBoard position, int square, MoveList moves) {
+        Side side = position.sideAt(square);
+        int opponents = position.getPieces(opposite(side));
+
+        // The moving piece is lifted off its square so that a king can pass back through it mid chain
+        int empty = position.getEmpty() | (1 << square);
+        addChains(position, square, square, side, position.isKing(square), opponents, empty, -1, 0, moves);
+    }
+
+    // Extends a chain of takes that has reached the given square by jumping in every direction possible
+    // Pieces that have been taken stay on the board until the chain is finished, so they can't be
+    // jumped twice or landed on. A chain is added to the list once it can't be extended any further
+    private static void addChains(BitBoard position, int from, int square, Side side, boolean isKing,
+                                  int opponents, int empty, int firstVictim, int victims, MoveList moves) {
+        boolean extended = false;
+        for (int direction : Neighbours.directionsFor(side, isKing)) {
+            int over = Neighbours.step(square, direction);
+            int landing = Neighbours.jump(square, direction);
+            if (landing == -1 || (opponents & ~victims & (1 << over)) == 0 || (empty & (1 << landing)) == 0) {
+                continue;
+            }
+
+            extended = true;
+            int first = firstVictim == -1 ? over : firstVictim;
+            int chainVictims = victims | (1 << over);
+            if (!isKing && (reachesKingRow(side, landing) || position.isKing(over))) {
+                // Becoming a king ends the turn
+                moves.add(PackedMove.take(from, landing, first, true), chainVictims);
+            } else {
+                addChains(position, from, landing, side, isKing, opponents, empty, first, chainVictims, moves);
+            }
+        }
+
+        if (!extended && victims != 0) {
+            // A king can take the same pieces by going round a loop in either direction
+            if (!isKing || !containsChain(moves, from, square, victims)) {
+                moves.add(PackedMove.take(from, square, firstVictim, false), victims);
+            }
+        }
+    }
+
+    // Return true if a chain with the same start, end and victims has already been added
+    private static boolean containsChain(MoveList moves, int from, int to, int victims) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.from(move) == from && PackedMove.to(move) == to && moves.getVictims(i) == victims) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean reachesKingRow(Side side, int square) {
+        return ((side == Side.BOTTOM ? BLACK_KING_ROW : RED_KING_ROW) & (1 << square)) != 0;
+    }
+}
@@ -0,0 +1,91 @@
+package main.java.impl;
+
+// A reusable buffer of packed moves (see PackedMove)
+// Each move is stored with a mask of the squares of the pieces it takes, which is 0 for normal moves
+// The search keeps one MoveList per ply and clears it before each use, so generating moves
+// never allocates
+public class MoveList {
+
+    // Comfortably more than the number of moves available in any reachable position
+    public static final int CAPACITY = 128;
+
+    private final int[] moves;
+    private final int[] victims;
+    private int size;
+
+    public MoveList() {
+        moves = new int[CAPACITY];
+        victims = new int[CAPACITY];
+        size = 0;
+    }
+
+    public void add(int move) {
+        add(move, 0);
+    }
+
+    public void add(int move, int victimMask) {
+        moves[size] = move;
+        victims[size] = victimMask;
+        size++;
+    }
+
+    // Adds every move in another list to the end of this one
+    public void addAll(MoveList other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.moves[i], other.victims[i]);
+        }
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    // Return the mask of squares taken by the move at the given index
+    public int getVictims(int index) {
+        return victims[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Return true if the given move is in the list
+    public boolean contains(int move, int victimMask) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move && victims[i] == victimMask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Swap the moves at two indexes, used to reorder the list when sorting it
+    public void swap(int i, int j) {
+        int move = moves[i];
+        int victimMask = victims[i];
+        moves[i] = moves[j];
+        victims[i] = victims[j];
+        moves[j] = move;
+        victims[j] = victimMask;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(PackedMove.toString(moves[i], victims[i]));
+        }
+        return text.append("]").toString();
+    }
+}
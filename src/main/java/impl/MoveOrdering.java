@@ -0,0 +1,145 @@
+package main.java.impl;
+
+import java.util.Arrays;
+
+// Decides the order the search tries moves in. Alpha-beta prunes the most when the best move
+// is searched first, so moves are given a score for how likely they are to be best and are
+// then picked highest score first:
+// * the hash move (the best move stored in the transposition table for the position)
+// * takes, with longer chains and chains that take kings first
+// * two killer moves per ply: normal moves that recently caused a cut off at the same ply
+// * other normal moves, by a history score that grows every time the move causes a cut off
+//
+// Helper threads of a LazySmpSearch add a little random noise to the history scores, so that each
+// tries normal moves in a slightly different order and they don't all search the same tree in step
+//
+// How well the ordering works can be measured by how many cut offs come from the first move tried,
+// which the search counts in its SearchStats
+public class MoveOrdering {
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int TAKE_SCORE = 1 << 29;
+    private static final int FIRST_KILLER_SCORE = 1 << 28;
+    private static final int SECOND_KILLER_SCORE = FIRST_KILLER_SCORE - 1;
+
+    // History scores are halved once any of them reaches this, so they stay below the killers
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final int[][] killers;
+    private final int[][] history;
+    private final int[][] scores;
+
+    // The most random noise added to a history score, 0 for none, and the state of the random numbers
+    private final int noise;
+    private long random;
+
+    public MoveOrdering() {
+        this(0, 0);
+    }
+
+    // An ordering that adds up to noise to each history score, from random numbers started from seed
+    public MoveOrdering(int noise, long seed) {
+        this.noise = noise;
+        random = seed | 1;
+        killers = new int[Search.MAX_PLY + 1][2];
+        history = new int[BitBoard.SQUARES][BitBoard.SQUARES];
+        scores = new int[Search.MAX_PLY + 1][MoveList.CAPACITY];
+        newSearch();
+    }
+
+    // Forgets the killer moves, which belong to the plies of the last search, and
+    // reduces the history scores so that recent cut offs count for more
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedMove.NONE;
+            plyKillers[1] = PackedMove.NONE;
+        }
+        for (int[] row : history) {
+            for (int to = 0; to < row.length; to++) {
+                row[to] /= 2;
+            }
+        }
+    }
+
+    // Forgets the killer moves and every history score
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedMove.NONE;
+            plyKillers[1] = PackedMove.NONE;
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // Scores every move in the list ready for them to be picked in order with next
+    public void score(MoveList moves, int ply, int hashMove, BitBoard position) {
+        int[] plyScores = scores[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == hashMove) {
+                plyScores[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move)) {
+                int victims = moves.getVictims(i);
+                plyScores[i] = TAKE_SCORE + 16 * Integer.bitCount(victims)
+                        + Integer.bitCount(victims & position.getKings());
+            } else if (move == killers[ply][0]) {
+                plyScores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                plyScores[i] = SECOND_KILLER_SCORE;
+            } else {
+                plyScores[i] = history[PackedMove.from(move)][PackedMove.to(move)] + (noise == 0 ? 0 : nextNoise());
+            }
+        }
+    }
+
+    // Xorshift random numbers, which are cheap enough to draw for every move
+    private int nextNoise() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) ((random >>> 33) % noise);
+    }
+
+    // Moves the highest scoring of the remaining moves to index i and returns it
+    // This is a selection sort done one step at a time, as most nodes cut off after a move or two
+    public int next(MoveList moves, int ply, int i) {
+        int[] plyScores = scores[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (plyScores[j] > plyScores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            moves.swap(i, best);
+            int score = plyScores[i];
+            plyScores[i] = plyScores[best];
+            plyScores[best] = score;
+        }
+        return moves.get(i);
+    }
+
+    // Records that the move caused a cut off at this ply
+    // Normal moves become killers and have their history score raised, more so the deeper the search
+    public void cutoff(int move, int ply, int depth) {
+        if (PackedMove.isCapture(move)) {
+            return;
+        }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int[] row = history[PackedMove.from(move)];
+        row[PackedMove.to(move)] += depth * depth;
+        if (row[PackedMove.to(move)] >= HISTORY_LIMIT) {
+            for (int[] scoresFrom : history) {
+                for (int to = 0; to < scoresFrom.length; to++) {
+                    scoresFrom[to] /= 2;
+                }
+            }
+        }
+    }
+}
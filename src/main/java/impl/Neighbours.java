@@ -0,0 +1,109 @@
+package main.java.impl;
+
+// Precomputed lookup tables describing which squares surround each of the 32 BitBoard squares.
+// For every square and direction (TL, TR, BL, BR) we store:
+// * the square one diagonal step away (where a normal move lands)
+// * the square two diagonal steps away (where a take lands)
+// A value of -1 means the step or jump would leave the board
+// This replaces the per-tile HashMap of surrounding positions so finding moves is just array lookups
+//
+// A step in a direction adds one of two amounts to the square number, depending on whether the square is
+// on an odd or even row (e.g. TL is -4 from an even row and -5 from an odd one). Masks of the squares
+// each amount applies to let a whole set of squares step at once with two shifts (see stepAll)
+public final class Neighbours {
+
+    // Directions, as seen from the top of the board (y = 0)
+    public static final int TL = 0;
+    public static final int TR = 1;
+    public static final int BL = 2;
+    public static final int BR = 3;
+
+    public static final int DIRECTIONS = 4;
+
+    private static final int[] DX = {-1, 1, -1, 1};
+    private static final int[] DY = {-1, -1, 1, 1};
+
+    // Black men move up the board, red men move down and kings can do both
+    private static final int[] BLACK_MAN_DIRECTIONS = {TL, TR};
+    private static final int[] RED_MAN_DIRECTIONS = {BL, BR};
+    private static final int[] KING_DIRECTIONS = {TL, TR, BL, BR};
+
+    private static final int[][] STEP = new int[BitBoard.SQUARES][DIRECTIONS];
+    private static final int[][] JUMP = new int[BitBoard.SQUARES][DIRECTIONS];
+
+    // For each direction, the two amounts a step adds to the square number and the squares each applies to
+    private static final int[] SHIFT_A = new int[DIRECTIONS];
+    private static final int[] SHIFT_B = new int[DIRECTIONS];
+    private static final int[] MASK_A = new int[DIRECTIONS];
+    private static final int[] MASK_B = new int[DIRECTIONS];
+
+    // One shared Position per square so converting squares back to positions doesn't allocate
+    private static final Position[] POSITIONS = new Position[BitBoard.SQUARES];
+
+    static {
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            int x = BitBoard.xOf(square);
+            int y = BitBoard.yOf(square);
+            POSITIONS[square] = new Position(x, y);
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                STEP[square][direction] = BitBoard.squareOf(x + DX[direction], y + DY[direction]);
+                JUMP[square][direction] = BitBoard.squareOf(x + 2 * DX[direction], y + 2 * DY[direction]);
+            }
+        }
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            // The first amount found is A, and the other one B
+            for (int square = 0; square < BitBoard.SQUARES; square++) {
+                int step = STEP[square][direction];
+                if (step == -1) {
+                    continue;
+                }
+                if (SHIFT_A[direction] == 0) {
+                    SHIFT_A[direction] = step - square;
+                }
+                if (step - square == SHIFT_A[direction]) {
+                    MASK_A[direction] |= 1 << square;
+                } else {
+                    SHIFT_B[direction] = step - square;
+                    MASK_B[direction] |= 1 << square;
+                }
+            }
+        }
+    }
+
+    private Neighbours() {
+    }
+
+    // Return the square one step away in the given direction, or -1 if off the board
+    public static int step(int square, int direction) {
+        return STEP[square][direction];
+    }
+
+    // Return the square two steps away in the given direction, or -1 if off the board
+    public static int jump(int square, int direction) {
+        return JUMP[square][direction];
+    }
+
+    // Return the mask of squares one step away in the given direction from any square in a mask
+    // Steps that would leave the board are dropped
+    public static int stepAll(int squares, int direction) {
+        return shift(squares & MASK_A[direction], SHIFT_A[direction])
+                | shift(squares & MASK_B[direction], SHIFT_B[direction]);
+    }
+
+    private static int shift(int squares, int amount) {
+        return amount > 0 ? squares << amount : squares >>> -amount;
+    }
+
+    // Return the directions a piece is allowed to move in
+    public static int[] directionsFor(Side side, boolean isKing) {
+        if (isKing) {
+            return KING_DIRECTIONS;
+        }
+        return side == Side.BOTTOM ? BLACK_MAN_DIRECTIONS : RED_MAN_DIRECTIONS;
+    }
+
+    // Return the board position of a square
+    public static Position positionOf(int square) {
+        return POSITIONS[square];
+    }
+}
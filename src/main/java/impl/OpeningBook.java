@@ -0,0 +1,133 @@
+package main.java.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// A book of opening moves, built by OpeningBookBuilder, so the AI doesn't have to search the same
+// opening positions every game
+//
+// The file is a header followed by fixed size records of (position hash, move, victims, weight, score),
+// sorted by hash, then move, then victims. The victims are the squares the move takes, as two chains of
+// takes can share their start, end and first piece taken but take different pieces. The weight is how
+// many times the move was played from the position, and the score is the average search score of the
+// move from the side to move's point of view
+//
+// The file is memory mapped and looked up with a binary search, so opening the book loads nothing onto
+// the heap and a lookup only touches the few pages the search lands on
+public class OpeningBook {
+
+    static final int MAGIC = 0x434B4232;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(ByteBuffer buffer) {
+        this.buffer = buffer;
+        size = buffer.getInt(4);
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+                || buffer.capacity() != HEADER_BYTES + (long) buffer.getInt(4) * RECORD_BYTES) {
+            throw new IOException(file + " is not an opening book");
+        }
+        return new OpeningBook(buffer);
+    }
+
+    // Picks a book move for a position, given its legal moves
+    // Return the index of the move in moves, or -1 if the position isn't in the book
+    // Moves are picked at random in proportion to their weights. If random is null the heaviest is picked,
+    // and of equally heavy moves the one with the best score
+    // Only moves that are legal are picked, so a hash that happens to match a different position
+    // can't make the AI play an illegal move
+    public int choose(BitBoard position, MoveList moves, Random random) {
+        int first = firstRecordOf(position.getHash());
+        int chosen = -1;
+        int totalWeight = 0;
+        int heaviest = 0;
+        int bestScore = Integer.MIN_VALUE;
+        for (int record = first; record < size && hashAt(record) == position.getHash(); record++) {
+            int index = indexOf(moves, moveAt(record), victimsAt(record));
+            int weight = weightAt(record);
+            if (index < 0 || weight == 0) {
+                continue;
+            }
+            totalWeight += weight;
+            int score = scoreAt(record);
+            boolean better = random == null
+                    ? weight > heaviest || (weight == heaviest && score > bestScore)
+                    : random.nextInt(totalWeight) < weight;
+            if (better) {
+                chosen = index;
+                heaviest = weight;
+                bestScore = score;
+            }
+        }
+        return chosen;
+    }
+
+    // Return the number of (position, move) records in the book
+    public int size() {
+        return size;
+    }
+
+    // Return whether the book has any moves for a position
+    public boolean contains(BitBoard position) {
+        int record = firstRecordOf(position.getHash());
+        return record < size && hashAt(record) == position.getHash();
+    }
+
+    // Binary search for the first record with the given hash, or for where it would be
+    private int firstRecordOf(long hash) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hashAt(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(MoveList moves, int move, int victims) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move && moves.getVictims(i) == victims) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long hashAt(int record) {
+        return buffer.getLong(HEADER_BYTES + record * RECORD_BYTES);
+    }
+
+    private int moveAt(int record) {
+        return buffer.getInt(HEADER_BYTES + record * RECORD_BYTES + 8);
+    }
+
+    private int victimsAt(int record) {
+        return buffer.getInt(HEADER_BYTES + record * RECORD_BYTES + 12);
+    }
+
+    private int weightAt(int record) {
+        return buffer.getShort(HEADER_BYTES + record * RECORD_BYTES + 16) & 0xFFFF;
+    }
+
+    private int scoreAt(int record) {
+        return buffer.getShort(HEADER_BYTES + record * RECORD_BYTES + 18);
+    }
+}
@@ -0,0 +1,139 @@
+package main.java.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Collects the moves played from opening positions and writes them as an OpeningBook file
+// Moves can be added one at a time from games that have been played, or the builder can play games
+// against itself, searching every move
+// Run with: java main.java.impl.OpeningBookBuilder <file> [games] [bookPlies] [millisPerMove]
+public class OpeningBookBuilder {
+
+    // Self play games start with this many random moves so that they don't all play the same opening
+    private static final int RANDOM_PLIES = 2;
+
+    // The moves seen from each position, by position hash and then move and victims (see keyOf)
+    private final Map<Long, Map<Long, Entry>> positions;
+
+    private static class Entry {
+        private final long hash;
+        private final int move;
+        private final int victims;
+        private int weight;
+        private long totalScore;
+
+        Entry(long hash, int move, int victims) {
+            this.hash = hash;
+            this.move = move;
+            this.victims = victims;
+        }
+    }
+
+    public OpeningBookBuilder() {
+        positions = new HashMap<>();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: OpeningBookBuilder <file> [games] [bookPlies] [millisPerMove]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int bookPlies = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 200;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        Search search = new Search();
+        Random random = new Random();
+        for (int game = 0; game < games; game++) {
+            builder.playGame(search, random, bookPlies, millis);
+            System.out.println("Game " + (game + 1) + " of " + games + ", " + builder.size() + " book moves");
+        }
+        builder.write(file);
+    }
+
+    // Records that a move, which takes the given squares, was played from a position, with its search score
+    // from the side to move's point of view
+    public void add(BitBoard position, int move, int victims, int score) {
+        Entry entry = positions.computeIfAbsent(position.getHash(), hash -> new HashMap<>())
+                .computeIfAbsent(keyOf(move, victims), played -> new Entry(position.getHash(), move, victims));
+        entry.weight++;
+        entry.totalScore += score;
+    }
+
+    // Plays the opening of a game against itself, adding the searched moves to the book
+    // The first few moves are random and aren't added. The game stops early if it ends, including by a draw
+    public void playGame(Search search, Random random, int bookPlies, long millisPerMove) {
+        BitBoard position = BitBoard.initial();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < bookPlies; ply++) {
+            if (ply < RANDOM_PLIES) {
+                MoveGenerator.generate(position, moves);
+                if (moves.isEmpty()) {
+                    return;
+                }
+                int i = random.nextInt(moves.size());
+                position.makeMove(moves.get(i), moves.getVictims(i));
+                continue;
+            }
+            if (position.isDraw()) {
+                return;
+            }
+            int move = search.findBestMoveWithin(position, millisPerMove);
+            if (move == PackedMove.NONE) {
+                return;
+            }
+            add(position, move, search.getBestVictims(), search.getBestScore());
+            position.makeMove(move, search.getBestVictims());
+        }
+    }
+
+    // Moves with the same start, end and first piece taken are told apart by their victims
+    private static long keyOf(int move, int victims) {
+        return ((long) move << 32) | (victims & 0xFFFFFFFFL);
+    }
+
+    // Return the number of (position, move) records the book will have
+    public int size() {
+        int size = 0;
+        for (Map<Long, Entry> moves : positions.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+
+    // Writes the book sorted by hash, then move, then victims, which is the order OpeningBook searches it in
+    public void write(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Map<Long, Entry> moves : positions.values()) {
+            entries.addAll(moves.values());
+        }
+        entries.sort(Comparator.<Entry>comparingLong(entry -> entry.hash)
+                .thenComparingInt(entry -> entry.move)
+                .thenComparingInt(entry -> entry.victims));
+
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + entries.size() * OpeningBook.RECORD_BYTES);
+        buffer.putInt(OpeningBook.MAGIC);
+        buffer.putInt(entries.size());
+        buffer.position(OpeningBook.HEADER_BYTES);
+        for (Entry entry : entries) {
+            int score = (int) (entry.totalScore / entry.weight);
+            buffer.putLong(entry.hash);
+            buffer.putInt(entry.move);
+            buffer.putInt(entry.victims);
+            buffer.putShort((short) Math.min(entry.weight, 0xFFFF));
+            buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)));
+        }
+        Files.write(file, buffer.array());
+    }
+}
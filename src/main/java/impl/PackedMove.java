@@ -0,0 +1,74 @@
+package main.java.impl;
+
+// The AI represents moves as plain ints so that it can generate and store them without creating objects.
+// The bits of a packed move are laid out as follows:
+// * bits 0-4   - the square the piece moves from
+// * bits 5-9   - the square the piece moves to
+// * bits 10-14 - the square of the first piece being taken (only meaningful for takes)
+// * bit 15     - set if the move is a take
+// * bit 16     - set if the move converts the piece to a king
+// A take covers the whole chain of jumps made in one turn. The full set of pieces taken is kept
+// alongside the packed move as a mask of victim squares (see MoveList.getVictims)
+// Only the move that is finally played is converted to a Move or Take (see Board.toMove)
+public final class PackedMove {
+
+    // Returned when there is no move, e.g. when a player has no moves left
+    public static final int NONE = -1;
+
+    private static final int SQUARE_MASK = 0x1F;
+    private static final int TO_SHIFT = 5;
+    private static final int CAPTURED_SHIFT = 10;
+    private static final int CAPTURE_FLAG = 1 << 15;
+    private static final int PROMOTION_FLAG = 1 << 16;
+
+    private PackedMove() {
+    }
+
+    // Create a normal move
+    public static int move(int from, int to, boolean promotion) {
+        int move = from | (to << TO_SHIFT);
+        return promotion ? move | PROMOTION_FLAG : move;
+    }
+
+    // Create a take (or chain of takes) whose first jump is over the captured square
+    public static int take(int from, int to, int captured, boolean promotion) {
+        return move(from, to, promotion) | (captured << CAPTURED_SHIFT) | CAPTURE_FLAG;
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int captured(int move) {
+        return (move >>> CAPTURED_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+
+    // Formats a move using board positions, in the same style as Move.toString
+    public static String toString(int move, int victims) {
+        if (move == NONE) {
+            return "none";
+        }
+        String text = Neighbours.positionOf(from(move)) + " to " + Neighbours.positionOf(to(move));
+        if (isCapture(move)) {
+            text += " taking";
+            for (int square = 0; square < BitBoard.SQUARES; square++) {
+                if ((victims & (1 << square)) != 0) {
+                    text += " " + Neighbours.positionOf(square);
+                }
+            }
+        }
+        return text;
+    }
+}
@@ -0,0 +1,309 @@
+package main.java.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Searches the moves at the root of the tree in parallel on a fork/join pool
+//
+// The first root move is searched on its own to get a score to beat, then the rest are searched
+// at the same time, one task per move. Each task borrows a Search, which has its own copy of the
+// position and its own transposition table, so no search state is shared between threads.
+//
+// The best score so far is shared between the tasks, and each move is only asked whether it can
+// at least match it, so later root moves still get cut offs. Moves that can match it get an exact
+// score, and ties go to the move that comes first in the root move order, which is how a sequential
+// Search picks its move too
+//
+// Which worker searches which root move depends on how the threads are scheduled, so a worker's
+// transposition table and move ordering are cleared before each root move. Nothing one root move's
+// search leaves behind can then change another's score, so the move chosen doesn't depend on the
+// scheduling (the windows, and so the number of nodes searched, still do). It is the move a sequential
+// Search picks too, unless the sequential search's table, which it shares between root moves, gives
+// a root move a different score
+public class ParallelSearch implements Engine {
+
+    public static final int DEFAULT_MEGABYTES_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final int megabytesPerThread;
+    private Tablebase tablebase;
+
+    // Searches not currently being used by a task, and every search created so that they can be stopped
+    private final Queue<Search> idleWorkers;
+    private final Queue<Search> allWorkers;
+
+    // The root moves, in the order a sequential search would try them, with their scores from the last iteration
+    private final MoveOrdering rootOrdering;
+    private final MoveList rootMoves;
+    private final int[] rootScores;
+    private final boolean[] exactScores;
+    private final MoveList[] rootLines;
+
+    private int bestMove;
+    private int bestVictims;
+    private int completedDepth;
+    private final MoveList principalVariation;
+    private final SearchStats stats;
+
+    private long deadline;
+    private boolean interruptible;
+    private volatile boolean stopped;
+
+    public ParallelSearch() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MEGABYTES_PER_THREAD);
+    }
+
+    public ParallelSearch(int threads, int megabytesPerThread) {
+        pool = new ForkJoinPool(threads);
+        this.megabytesPerThread = megabytesPerThread;
+        idleWorkers = new ConcurrentLinkedQueue<>();
+        allWorkers = new ConcurrentLinkedQueue<>();
+        rootOrdering = new MoveOrdering();
+        rootMoves = new MoveList();
+        rootScores = new int[MoveList.CAPACITY];
+        exactScores = new boolean[MoveList.CAPACITY];
+        rootLines = new MoveList[MoveList.CAPACITY];
+        for (int i = 0; i < rootLines.length; i++) {
+            rootLines[i] = new MoveList();
+        }
+        principalVariation = new MoveList();
+        stats = new SearchStats();
+    }
+
+    @Override
+    public int findBestMove(BitBoard root, int depth) {
+        startSearch(root, Long.MAX_VALUE);
+        if (rootMoves.isEmpty()) {
+            return PackedMove.NONE;
+        }
+        SearchIterationEvent event = new SearchIterationEvent();
+        event.begin();
+        int best = searchRoot(root, Math.min(depth, Search.MAX_PLY));
+        completeIteration(depth, best);
+        event.record(depth, rootScores[best], stats.getNodes(), bestMove, bestVictims, true);
+        stats.finish();
+        return bestMove;
+    }
+
+    // Iterative deepening, as in Search.findBestMoveWithin
+    // The best move of each iteration is searched first in the next one
+    @Override
+    public int findBestMoveWithin(BitBoard root, long millis) {
+        startSearch(root, System.nanoTime() + millis * 1_000_000L);
+        if (rootMoves.isEmpty()) {
+            return PackedMove.NONE;
+        }
+        for (int depth = 1; depth <= Search.MAX_PLY; depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            long startNodes = stats.getNodes();
+            int best = searchRoot(root, depth);
+            if (best < 0) {
+                event.record(depth, 0, stats.getNodes() - startNodes, bestMove, bestVictims, false);
+                break;
+            }
+            int score = rootScores[best];
+            completeIteration(depth, best);
+            event.record(depth, score, stats.getNodes() - startNodes, bestMove, bestVictims, true);
+            for (int i = best; i > 0; i--) {
+                rootMoves.swap(i, i - 1);
+            }
+            interruptible = true;
+
+            if (Math.abs(score) > Search.WIN_SCORE - Search.MAX_PLY || rootMoves.size() == 1) {
+                break;
+            }
+        }
+        stats.finish();
+        return bestMove;
+    }
+
+    private void completeIteration(int depth, int best) {
+        bestMove = rootMoves.get(best);
+        bestVictims = rootMoves.getVictims(best);
+        completedDepth = depth;
+        principalVariation.clear();
+        principalVariation.addAll(rootLines[best]);
+        stats.completeIteration(depth);
+    }
+
+    @Override
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        for (Search worker : allWorkers) {
+            worker.setTablebase(tablebase);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        for (Search worker : allWorkers) {
+            worker.stop();
+        }
+    }
+
+    // Stops the pool's threads. The search can't be used after this
+    public void shutdown() {
+        stop();
+        pool.shutdown();
+    }
+
+    private void startSearch(BitBoard root, long deadline) {
+        bestMove = PackedMove.NONE;
+        bestVictims = 0;
+        completedDepth = 0;
+        principalVariation.clear();
+        stats.start();
+        this.deadline = deadline;
+        interruptible = false;
+        stopped = false;
+
+        MoveGenerator.generate(root, rootMoves);
+        rootOrdering.newSearch();
+        rootOrdering.score(rootMoves, 0, PackedMove.NONE, root);
+        for (int i = 0; i < rootMoves.size(); i++) {
+            rootOrdering.next(rootMoves, 0, i);
+        }
+    }
+
+    // Searches every root move to the given depth and returns the index of the best one,
+    // or -1 if the search was interrupted
+    private int searchRoot(BitBoard root, int depth) {
+        RootSearch search = new RootSearch(root, depth);
+        pool.invoke(search);
+        if (search.interrupted) {
+            return -1;
+        }
+
+        int best = 0;
+        for (int i = 1; i < rootMoves.size(); i++) {
+            if (exactScores[i] && rootScores[i] > rootScores[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private Search borrowWorker() {
+        Search worker = idleWorkers.poll();
+        if (worker == null) {
+            worker = new Search(new TranspositionTable(megabytesPerThread,
+                    TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+            worker.setTablebase(tablebase);
+            allWorkers.add(worker);
+        }
+        return worker;
+    }
+
+    // Searches the first root move with a full window, then the rest in parallel
+    private class RootSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BitBoard root;
+        private final int depth;
+        private volatile boolean interrupted;
+
+        RootSearch(BitBoard root, int depth) {
+            this.root = root;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            searchMove(0, -Search.INFINITY, Search.INFINITY);
+            if (interrupted) {
+                return;
+            }
+
+            AtomicInteger bestScore = new AtomicInteger(rootScores[0]);
+            List<RootMoveSearch> tasks = new ArrayList<>();
+            for (int i = 1; i < rootMoves.size(); i++) {
+                tasks.add(new RootMoveSearch(this, i, bestScore));
+            }
+            invokeAll(tasks);
+        }
+
+        // Searches one root move and records its score, and whether that score is exact
+        void searchMove(int index, int alpha, int beta) {
+            if (interruptible && stopped) {
+                interrupted = true;
+                return;
+            }
+            Search worker = borrowWorker();
+            worker.getTable().clear();
+            worker.getOrdering().clear();
+            int score = worker.scoreMove(root, rootMoves.get(index), rootMoves.getVictims(index),
+                    depth, alpha, beta, deadline, interruptible);
+            stats.add(worker.getStats());
+            if (interruptible && (worker.isStopped() || stopped)) {
+                interrupted = true;
+            }
+            rootLines[index].clear();
+            rootLines[index].addAll(worker.getPrincipalVariation());
+            idleWorkers.add(worker);
+
+            rootScores[index] = score;
+            exactScores[index] = score > alpha;
+        }
+    }
+
+    // Searches a root move after the first, with a window starting just below the best score so far
+    // A score that reaches the window is exact, and becomes the new best if it beats it
+    private class RootMoveSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RootSearch parent;
+        private final int index;
+        private final AtomicInteger bestScore;
+
+        RootMoveSearch(RootSearch parent, int index, AtomicInteger bestScore) {
+            this.parent = parent;
+            this.index = index;
+            this.bestScore = bestScore;
+        }
+
+        @Override
+        protected void compute() {
+            parent.searchMove(index, bestScore.get() - 1, Search.INFINITY);
+            if (exactScores[index]) {
+                bestScore.accumulateAndGet(rootScores[index], Math::max);
+            }
+        }
+    }
+
+    @Override
+    public int getBestVictims() {
+        return bestVictims;
+    }
+
+    @Override
+    public MoveList getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    @Override
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    @Override
+    public long getNodes() {
+        return stats.getNodes();
+    }
+
+    // The counts are the totals of every thread, and the iterations are those of the whole root
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+}
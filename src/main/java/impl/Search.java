@@ -0,0 +1,530 @@
+package main.java.impl;
+
+// This is the AI's implementation of minimax with alpha-beta pruning, written as a principal variation search.
+// It searches its own copy of a BitBoard position rather than the Board so that no GUI objects are touched.
+// All of the memory used while searching (the position and one MoveList per ply) is allocated
+// once when the Search is created and reused for every search after that
+// Results are cached in a transposition table that is kept between searches, so positions
+// searched on the AI's previous turn don't have to be searched again
+// Searches are normally run with a time budget rather than a fixed depth (see findBestMoveWithin)
+// The search is written as negamax: every score is from the point of view of the side to move, so
+// one side's best score is the other side's worst and both sides can share the same code
+public class Search implements Engine {
+
+    // The deepest the search can ever go
+    public static final int MAX_PLY = 64;
+
+    // Score for a position where one side has no moves left
+    // It is far larger than any evaluation, but small enough to fit in a transposition table entry
+    public static final int WIN_SCORE = 30000;
+
+    // Larger than any score, used for a full alpha-beta window
+    static final int INFINITY = WIN_SCORE + 1;
+
+    // Score for a position the tablebase says is won. It is above any evaluation but below the scores
+    // of wins the search has found itself
+    private static final int TABLEBASE_WIN = WIN_SCORE / 2;
+
+    // Half the width of the first aspiration window tried by iterative deepening
+    private static final int ASPIRATION_WINDOW = 25;
+
+    private final BitBoard position;
+    private final MoveList[] moveLists;
+    private final TranspositionTable table;
+    private final MoveOrdering ordering;
+
+    // Exact results for positions with only a few pieces left, or null if there isn't one
+    private Tablebase tablebase;
+
+    // The best move found at the root of the last search, the squares it takes and its score
+    private int bestMove;
+    private int bestVictims;
+    private int bestScore;
+
+    // The line of play the last search expects: its best move followed by the best replies to it
+    private final MoveList principalVariation;
+
+    // The line of best moves found from each ply during the current iteration. The line from a ply is the
+    // best move at that ply followed by the line from the next ply, so the line from the root is the
+    // principal variation
+    private final MoveList[] pvLines;
+
+    // The best move found at the root so far by the current iteration
+    private int iterationBestMove;
+    private int iterationBestVictims;
+
+    // What the last search did: the nodes it visited, its cut offs, transposition table hits and so on
+    private final SearchStats stats;
+
+    // The time limited search checks the clock every NODES_PER_CLOCK_CHECK nodes
+    private static final int NODES_PER_CLOCK_CHECK = 1024;
+
+    // When, in System.nanoTime, the current search has to stop. Long.MAX_VALUE for no limit
+    private long deadline;
+
+    // Set when the current search has run out of time or has been told to stop
+    private volatile boolean stopped;
+
+    // The depth of the deepest search that completed during the last findBestMoveWithin
+    private int completedDepth;
+
+    // Whether running out of time or being stopped abandons the current search
+    // It isn't set during the first iteration, which always has to finish
+    private boolean interruptible;
+
+    public Search() {
+        this(new TranspositionTable());
+    }
+
+    public Search(TranspositionTable table) {
+        this(table, new MoveOrdering());
+    }
+
+    public Search(TranspositionTable table, MoveOrdering ordering) {
+        this.table = table;
+        this.ordering = ordering;
+        position = new BitBoard();
+        moveLists = new MoveList[MAX_PLY + 1];
+        pvLines = new MoveList[MAX_PLY + 1];
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            pvLines[ply] = new MoveList();
+        }
+        principalVariation = new MoveList();
+        stats = new SearchStats();
+    }
+
+    // Runs minimax from the given position to the given depth and returns the best move
+    // for the side to move, or PackedMove.NONE if it has no moves
+    // The squares taken by the move are available from getBestVictims
+    public int findBestMove(BitBoard root, int depth) {
+        startSearch(root, Long.MAX_VALUE);
+        table.newSearch();
+        SearchIterationEvent event = new SearchIterationEvent();
+        event.begin();
+        int score = searchRoot(Math.min(depth, MAX_PLY), -INFINITY, INFINITY);
+        completeIteration(depth, score);
+        event.record(depth, score, stats.getNodes(), bestMove, bestVictims, true);
+        stats.finish();
+        return bestMove;
+    }
+
+    // Iterative deepening: searches to depth 1, then 2, then 3... until the time budget runs out,
+    // and returns the best move of the deepest search that finished
+    // Each search fills the transposition table with best moves that make the next, deeper,
+    // search much faster, so this costs little more than searching the final depth directly
+    // Depth 1 is always completed so that there is always a move to play
+    public int findBestMoveWithin(BitBoard root, long millis) {
+        startSearch(root, System.nanoTime() + millis * 1_000_000L);
+        table.newSearch();
+        return deepen(1, false);
+    }
+
+    // Iterative deepening for a Lazy SMP helper thread (see LazySmpSearch)
+    // It is the same as findBestMoveWithin except that it starts at firstDepth, has no time limit
+    // and doesn't start a new search in the transposition table, which is shared with the other threads
+    // It keeps going until it is stopped, or finds a win or loss
+    public int helpSearch(BitBoard root, int firstDepth) {
+        startSearch(root, Long.MAX_VALUE);
+        return deepen(firstDepth, true);
+    }
+
+    private int deepen(int firstDepth, boolean helper) {
+        for (int depth = firstDepth; depth <= MAX_PLY; depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.helper = helper;
+            event.begin();
+            long startNodes = stats.getNodes();
+            int score = completedDepth == 0
+                    ? searchRoot(depth, -INFINITY, INFINITY)
+                    : searchWithAspiration(depth, bestScore);
+            if (stopped && interruptible) {
+                event.record(depth, 0, stats.getNodes() - startNodes, bestMove, bestVictims, false);
+                break;
+            }
+            completeIteration(depth, score);
+            event.record(depth, score, stats.getNodes() - startNodes, bestMove, bestVictims, true);
+            interruptible = true;
+
+            // No point searching deeper once a win or loss has been found, or if there's only one move
+            if (bestMove == PackedMove.NONE || Math.abs(score) > WIN_SCORE - MAX_PLY || moveLists[0].size() == 1) {
+                break;
+            }
+        }
+        stats.finish();
+        return bestMove;
+    }
+
+    /*
+    Aspiration windows: the score of a search is usually close to the score of the search one ply
+    shallower, so rather than a full window the root is searched with a narrow window around the last score.
+    The narrower the window the more gets pruned. If the score falls outside the window the search failed
+    low or high, and it is repeated with the window widened on that side, twice as far each time
+     */
+    private int searchWithAspiration(int depth, int previousScore) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - window, -INFINITY);
+        int beta = Math.min(previousScore + window, INFINITY);
+        while (true) {
+            int score = searchRoot(depth, alpha, beta);
+            if (stopped && interruptible) {
+                return score;
+            }
+            if (score <= alpha) {
+                window *= 2;
+                alpha = Math.max(score - window, -INFINITY);
+            } else if (score >= beta) {
+                window *= 2;
+                beta = Math.min(score + window, INFINITY);
+            } else {
+                return score;
+            }
+        }
+    }
+
+    private void completeIteration(int depth, int score) {
+        bestMove = iterationBestMove;
+        bestVictims = iterationBestVictims;
+        bestScore = score;
+        completedDepth = depth;
+        principalVariation.clear();
+        principalVariation.addAll(pvLines[0]);
+        stats.completeIteration(depth);
+    }
+
+    // Searches a single root move to the given depth within an alpha-beta window and returns
+    // its score, or 0 if the search was interrupted (see isStopped)
+    // The window and the score are from the point of view of the side to move at the root
+    // This lets ParallelSearch give each root move to a different thread
+    public int scoreMove(BitBoard root, int move, int victims, int depth, int alpha, int beta,
+                         long deadline, boolean interruptible) {
+        stats.start();
+        this.deadline = deadline;
+        this.interruptible = interruptible;
+        stopped = false;
+        position.copyFrom(root);
+        position.makeMove(move, victims);
+        int score = -negamax(1, depth - 1, -beta, -alpha);
+        principalVariation.clear();
+        principalVariation.add(move, victims);
+        principalVariation.addAll(pvLines[1]);
+        stats.finish();
+        return score;
+    }
+
+    // Asks a running search to stop as soon as possible
+    // It returns the best move found by the deepest search that finished
+    public void stop() {
+        stopped = true;
+    }
+
+    // Return whether the last search was stopped or ran out of time
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    private void startSearch(BitBoard root, long deadline) {
+        bestMove = PackedMove.NONE;
+        bestVictims = 0;
+        bestScore = 0;
+        principalVariation.clear();
+        stats.start();
+        this.deadline = deadline;
+        stopped = false;
+        completedDepth = 0;
+        interruptible = false;
+        position.copyFrom(root);
+        ordering.newSearch();
+    }
+
+    private int searchRoot(int depth, int alpha, int beta) {
+        iterationBestMove = PackedMove.NONE;
+        iterationBestVictims = 0;
+        return negamax(0, depth, alpha, beta);
+    }
+
+    // Checks whether the search has been stopped or has run out of time
+    // The clock is only read every so often because reading it is comparatively slow
+    private boolean timeUp() {
+        if (!stopped && (stats.getNodes() % NODES_PER_CLOCK_CHECK) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        return stopped && interruptible;
+    }
+
+    /*
+    Each move is made on the search's position before recursing and undone again afterwards.
+    The score of a move is minus the score of the position it leads to, as that score is from the
+    opponent's point of view, and the alpha-beta window is swapped and negated for the same reason
+
+    A side with no moves left has lost. Wins found closer to the root score slightly higher so the AI
+    takes the quickest win it can find (and puts off losses for as long as possible)
+
+    Principal variation search: with good move ordering the first move tried is usually the best, so
+    only the first move is searched with the full window. Every other move is searched with a null
+    window (alpha, alpha + 1), which can only tell us whether the move is better than alpha but prunes
+    far more. In the rare case that it is better, the move is searched again with the full window to get
+    its real score. Nodes searched with a null window are called non-PV nodes, the others are PV nodes
+
+    Before searching a position we check the transposition table. At non-PV nodes a stored result that
+    was searched at least as deeply can answer the position outright. PV nodes are always searched, so that
+    the principal variation is complete. A stored best move is always tried first, and the remaining
+    moves are tried in the order given by MoveOrdering
+
+    Positions with few enough pieces are answered by the tablebase instead of being searched
+
+    A position that repeats one already reached, in the game or earlier in the search, is scored as a draw
+    without searching it. Whichever side could avoid the repetition would have done so the first time
+    round if that was better, so the cycle is cut short rather than searched over and over. Positions
+    reached once the quiet move limit is up are drawn too (see BitBoard.isDraw)
+
+    Once we reach a depth of 0 we carry on with a quiescence search, which only evaluates the board
+    once there are no takes left to make
+
+    If the search is stopped part way through then 0 is returned all the way back up the tree
+    and nothing more is stored in the transposition table
+     */
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        pvLines[ply].clear();
+        if (depth == 0 || ply == MAX_PLY) {
+            return quiescence(ply, alpha, beta);
+        }
+        stats.countNode();
+        if (timeUp()) {
+            return 0;
+        }
+        if (ply > 0 && (position.repetitions() > 0 || position.getQuietPlies() >= position.getDrawPlies())) {
+            return 0;
+        }
+        MoveList moves = moveLists[ply];
+        boolean pvNode = beta - alpha > 1;
+        long hash = position.getHash();
+
+        long entry = table.probe(hash);
+        stats.countTableProbe(entry != 0);
+        if (entry != 0 && !pvNode && ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+            int stored = fromTable(TranspositionTable.scoreOf(entry), ply);
+            Bound bound = TranspositionTable.boundOf(entry);
+            if (bound == Bound.EXACT
+                    || (bound == Bound.LOWER && stored >= beta)
+                    || (bound == Bound.UPPER && stored <= alpha)) {
+                return stored;
+            }
+        }
+
+        if (tablebase != null && ply > 0) {
+            int result = tablebase.probe(position);
+            if (result != Tablebase.UNKNOWN) {
+                stats.countTablebaseHit();
+                return tablebaseScore(result, ply);
+            }
+        }
+
+        MoveGenerator.generate(position, moves);
+        if (moves.isEmpty()) {
+            return -WIN_SCORE + ply;
+        }
+
+        int hashMove = entry != 0 ? TranspositionTable.moveOf(entry) : PackedMove.NONE;
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int nodeBestMove = PackedMove.NONE;
+        ordering.score(moves, ply, hashMove, position);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            int victims = moves.getVictims(i);
+            position.makeMove(move, victims);
+            int score;
+            if (i == 0) {
+                score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+            } else {
+                score = -negamax(ply + 1, depth - 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+                }
+            }
+            position.undoMove();
+            if (timeUp()) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                nodeBestMove = move;
+                if (ply == 0) {
+                    iterationBestMove = move;
+                    iterationBestVictims = victims;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+                MoveList line = pvLines[ply];
+                line.clear();
+                line.add(move, victims);
+                line.addAll(pvLines[ply + 1]);
+            }
+            if (alpha >= beta) {
+                ordering.cutoff(move, ply, depth);
+                stats.countCutoff(i);
+                break;
+            }
+        }
+
+        Bound bound;
+        if (bestScore <= originalAlpha) {
+            bound = Bound.UPPER;
+        } else if (bestScore >= beta) {
+            bound = Bound.LOWER;
+        } else {
+            bound = Bound.EXACT;
+        }
+        table.store(hash, depth, toTable(bestScore, ply), bound, nodeBestMove);
+        return bestScore;
+    }
+
+    /*
+    Quiescence search, run where minimax reaches its depth limit.
+
+    Evaluating a position where a take is about to be made gives a misleading score, because the
+    material is about to change. As takes are forced, the side to move has no choice but to make one,
+    so instead of evaluating we keep searching takes (and only takes) until a quiet position is reached
+    and evaluate that. Quiet positions are evaluated straight away
+
+    Takes remove pieces, so this always finishes quickly. It uses the same alpha-beta pruning as
+    minimax but doesn't use the transposition table
+
+    Most positions reached here are quiet, so whether there is a take to make, or any move at all, is
+    checked with MoveGenerator.hasAnyTake and hasAnyStep first, and moves are only generated for
+    positions that have takes
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        stats.countQuiescenceNode();
+        if (timeUp()) {
+            return 0;
+        }
+        boolean hasTake = MoveGenerator.hasAnyTake(position);
+        if (!hasTake || ply == MAX_PLY) {
+            if (!hasTake && !MoveGenerator.hasAnyStep(position)) {
+                return -WIN_SCORE + ply;
+            }
+            int score = evaluate(position);
+            return position.getSideToMove() == Side.BOTTOM ? score : -score;
+        }
+
+        MoveList moves = moveLists[ply];
+        MoveGenerator.generate(position, moves);
+        ordering.score(moves, ply, PackedMove.NONE, position);
+        int bestScore = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            position.makeMove(move, moves.getVictims(i));
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            position.undoMove();
+            if (timeUp()) {
+                return 0;
+            }
+
+            bestScore = Math.max(bestScore, score);
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    // Tablebase results only say who wins, not how, so the evaluation is added to wins and losses
+    // to keep the search heading for positions where the win is easier, and quicker wins score higher
+    private int tablebaseScore(int result, int ply) {
+        if (result == Tablebase.DRAW) {
+            return 0;
+        }
+        int score = evaluate(position);
+        if (position.getSideToMove() == Side.TOP) {
+            score = -score;
+        }
+        return result == Tablebase.WIN ? TABLEBASE_WIN - ply + score : -TABLEBASE_WIN + ply + score;
+    }
+
+    // Wins are stored relative to the position rather than the root so that they are still
+    // correct when the position is reached at a different ply
+    private static int toTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score + ply;
+        } else if (score < -WIN_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_PLY) {
+            return score - ply;
+        } else if (score < -WIN_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // Return the mask of squares taken by the best move of the last search
+    public int getBestVictims() {
+        return bestVictims;
+    }
+
+    // Return the score of the best move of the last search, from the point of view of the side to move
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    // Return the principal variation of the last search: its best move followed by the moves it
+    // expects to be played after it
+    @Override
+    public MoveList getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    // Return the depth of the deepest search completed by the last findBestMoveWithin
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    // Return the number of positions visited by the last search
+    public long getNodes() {
+        return stats.getNodes();
+    }
+
+    public long getQuiescenceNodes() {
+        return stats.getQuiescenceNodes();
+    }
+
+    public long getTablebaseHits() {
+        return stats.getTablebaseHits();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public MoveOrdering getOrdering() {
+        return ordering;
+    }
+
+    // This method contains the game heuristic that is used in minimax
+    // It scores the position from black's point of view, and the search negates it for red
+    // The value of the pieces (material and piece-square tables, see Evaluation) is kept up to date by
+    // the position as moves are made, so this only adds the tempo bonus for the side to move
+    public static int evaluate(BitBoard position) {
+        int tempo = position.getEvaluation().getTempo();
+        return position.getScore() + (position.getSideToMove() == Side.BOTTOM ? tempo : -tempo);
+    }
+}
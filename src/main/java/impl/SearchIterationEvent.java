@@ -0,0 +1,54 @@
+package main.java.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// A JDK Flight Recorder event for each iteration of iterative deepening, so a recording shows where
+// the AI's thinking time went. The event's duration is the time the iteration took
+// Events are only recorded while a recording is running, e.g. one started with
+//   jcmd <pid> JFR.start name=checkers
+// and cost next to nothing otherwise
+@Name("checkers.SearchIteration")
+@Label("Search Iteration")
+@Category({"Checkers", "AI"})
+@Description("One iteration of iterative deepening")
+public class SearchIterationEvent extends jdk.jfr.Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    @Description("Score of the best move, from the point of view of the side to move")
+    int score;
+
+    @Label("Nodes")
+    @Description("Positions visited by this iteration")
+    long nodes;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Helper")
+    @Description("True for the iterations of a Lazy SMP helper thread, whose moves are never played")
+    boolean helper;
+
+    @Label("Completed")
+    @Description("False if the iteration ran out of time or was stopped before it finished")
+    boolean completed;
+
+    // Ends the event and commits it if it is being recorded
+    // An iteration that didn't complete has no score, and its best move is the last iteration's
+    void record(int depth, int score, long nodes, int bestMove, int bestVictims, boolean completed) {
+        end();
+        if (shouldCommit()) {
+            this.depth = depth;
+            this.score = score;
+            this.nodes = nodes;
+            this.bestMove = PackedMove.toString(bestMove, bestVictims);
+            this.completed = completed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package main.java.impl;
+
+// The move an Engine chose for a position, as returned by AIService
+// The move is a PackedMove, and is PackedMove.NONE if the side to move had no moves
+public class SearchResult {
+
+    private final int move;
+    private final int victims;
+    private final int depth;
+    private final long nodes;
+    private final String summary;
+    private final MoveList principalVariation;
+
+    public SearchResult(int move, int victims, int depth, long nodes, String summary, MoveList principalVariation) {
+        this.move = move;
+        this.victims = victims;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.summary = summary;
+        this.principalVariation = new MoveList();
+        this.principalVariation.addAll(principalVariation);
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    // Return the mask of squares taken by the move
+    public int getVictims() {
+        return victims;
+    }
+
+    // Return the depth of the deepest search that completed
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    // Return the move followed by the moves the search expects to be played after it
+    public MoveList getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    // Return a one line summary of the search's statistics (see SearchStats)
+    public String getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return PackedMove.toString(move, victims) + " (" + summary + ")";
+    }
+}
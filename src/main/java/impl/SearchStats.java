@@ -0,0 +1,221 @@
+package main.java.impl;
+
+import java.util.Arrays;
+
+// Counts what a search does, so that changes to the search can be measured:
+// * nodes - positions visited, and how many of those were in quiescence search
+// * cut offs - how many moves caused a beta cut off, and how often it was the first move tried.
+//   The closer that is to 100% the better the move ordering
+// * transposition table probes, and how many found an entry for the position
+// * tablebase hits - positions answered by the tablebase
+// * the depth of the deepest iteration that completed, and how long each iteration took
+// * effective branching factor - how many times more nodes each iteration takes than the last
+//
+// The counters are plain fields written by the searching thread only, so counting costs no more than
+// incrementing a field. They can be read from other threads (e.g. over JMX) while a search is running,
+// but are then only an approximation of where the search has got to
+public class SearchStats implements SearchStatsMXBean {
+
+    private long nodes;
+    private long quiescenceNodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long tableProbes;
+    private long tableHits;
+    private long tablebaseHits;
+
+    // Nodes and nanoseconds taken by each iteration, by depth
+    private final long[] iterationNodes;
+    private final long[] iterationNanos;
+    private int depth;
+
+    // When, in System.nanoTime, the search and its current iteration started, and when the search finished
+    private long startNanos;
+    private long iterationStartNanos;
+    private long iterationStartNodes;
+    private long finishNanos;
+
+    public SearchStats() {
+        iterationNodes = new long[Search.MAX_PLY + 1];
+        iterationNanos = new long[Search.MAX_PLY + 1];
+    }
+
+    // Clears every count for a new search
+    synchronized void start() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        tablebaseHits = 0;
+        Arrays.fill(iterationNodes, 0);
+        Arrays.fill(iterationNanos, 0);
+        depth = 0;
+        startNanos = System.nanoTime();
+        iterationStartNanos = startNanos;
+        iterationStartNodes = 0;
+        finishNanos = 0;
+    }
+
+    synchronized void finish() {
+        finishNanos = System.nanoTime();
+    }
+
+    // Records that the iteration to the given depth has completed
+    synchronized void completeIteration(int depth) {
+        long now = System.nanoTime();
+        iterationNodes[depth] = nodes - iterationStartNodes;
+        iterationNanos[depth] = now - iterationStartNanos;
+        iterationStartNodes = nodes;
+        iterationStartNanos = now;
+        this.depth = depth;
+    }
+
+    void countNode() {
+        nodes++;
+    }
+
+    void countQuiescenceNode() {
+        nodes++;
+        quiescenceNodes++;
+    }
+
+    // Records a beta cut off by the index-th move tried
+    void countCutoff(int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    void countTableProbe(boolean hit) {
+        tableProbes++;
+        if (hit) {
+            tableHits++;
+        }
+    }
+
+    void countTablebaseHit() {
+        tablebaseHits++;
+    }
+
+    // Adds the counts of another search, e.g. a thread that searched part of the same tree
+    // The iterations are left alone, as they belong to the search that decides the move
+    synchronized void add(SearchStats other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        tableProbes += other.tableProbes;
+        tableHits += other.tableHits;
+        tablebaseHits += other.tablebaseHits;
+    }
+
+    // Takes the depth and iteration times from another search
+    synchronized void copyIterations(SearchStats other) {
+        System.arraycopy(other.iterationNodes, 0, iterationNodes, 0, iterationNodes.length);
+        System.arraycopy(other.iterationNanos, 0, iterationNanos, 0, iterationNanos.length);
+        depth = other.depth;
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    @Override
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    // Return the percentage of cut offs that came from the first move tried
+    @Override
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : 100.0 * firstMoveCutoffs / cutoffs;
+    }
+
+    @Override
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    @Override
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    // Return the percentage of transposition table probes that found an entry
+    @Override
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0 : 100.0 * tableHits / tableProbes;
+    }
+
+    @Override
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    // Return the nodes of the last iteration divided by the nodes of the one before it
+    // With only one iteration it is the branching factor a uniform tree of that depth and size would have
+    @Override
+    public synchronized double getEffectiveBranchingFactor() {
+        if (depth >= 2 && iterationNodes[depth - 1] > 0) {
+            return (double) iterationNodes[depth] / iterationNodes[depth - 1];
+        }
+        return depth == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+
+    // Return the depth of the deepest iteration that completed
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    // Return how long the search took, or has taken so far if it is still running
+    @Override
+    public synchronized long getMillis() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return ((finishNanos != 0 ? finishNanos : System.nanoTime()) - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        return nodes * 1000.0 / Math.max(getMillis(), 1);
+    }
+
+    // Return how long each completed iteration took, starting from depth 1
+    @Override
+    public synchronized long[] getIterationMillis() {
+        long[] millis = new long[depth];
+        for (int i = 1; i <= depth; i++) {
+            millis[i - 1] = iterationNanos[i] / 1_000_000;
+        }
+        return millis;
+    }
+
+    // Return the statistics on a single line, for the game's move log
+    @Override
+    public String getSummary() {
+        return String.format("depth %d, %d nodes (%.0f%% quiescence), %.0fk nodes/s, EBF %.2f, "
+                        + "%.0f%% first move cut offs, %.0f%% TT hits, %dms",
+                getDepth(), getNodes(), nodes == 0 ? 0 : 100.0 * quiescenceNodes / nodes, getNodesPerSecond() / 1000,
+                getEffectiveBranchingFactor(), getFirstMoveCutoffRate(), getTableHitRate(), getMillis());
+    }
+
+    @Override
+    public String toString() {
+        return getSummary();
+    }
+}
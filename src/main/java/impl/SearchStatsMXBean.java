@@ -0,0 +1,34 @@
+package main.java.impl;
+
+// The statistics of the last search, as they are seen through JMX (e.g. in JConsole or VisualVM)
+// See SearchStats for what each of them means
+public interface SearchStatsMXBean {
+
+    long getNodes();
+
+    long getQuiescenceNodes();
+
+    long getCutoffs();
+
+    double getFirstMoveCutoffRate();
+
+    long getTableProbes();
+
+    long getTableHits();
+
+    double getTableHitRate();
+
+    long getTablebaseHits();
+
+    double getEffectiveBranchingFactor();
+
+    int getDepth();
+
+    long getMillis();
+
+    double getNodesPerSecond();
+
+    long[] getIterationMillis();
+
+    String getSummary();
+}
@@ -0,0 +1,229 @@
+package main.java.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Endgame tablebase: the exact result (win, draw or loss for the side to move) of every position
+// with only a few pieces left, as worked out by TablebaseGenerator
+//
+// Positions are split into slices by their material: the number of black men, black kings, red men
+// and red kings. Each slice is one file, and within it every position has an index worked out from
+// where each kind of piece is (see indexOf). A position's result is stored in 2 bits at its index,
+// so a file is just a short header followed by 4 results per byte
+//
+// Files are read through memory mapping. Nothing is loaded onto the heap when the tablebase is opened,
+// the operating system pages the parts of the files that are probed in as they are needed
+public class Tablebase {
+
+    // Results, from the point of view of the side to move
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+
+    // Returned by probe for positions that aren't in the tablebase
+    public static final int UNKNOWN = -1;
+
+    // Slices with more pieces than this can have too many indexes to fit in an array
+    // e.g. 2 black men, 2 black kings, 2 red men and a red king has 2 * 496^3 * 32 indexes, over 2^31
+    public static final int MAX_PIECES = 6;
+
+    static final String EXTENSION = ".wdl";
+    static final int HEADER_BYTES = 8;
+    static final int MAGIC = 0x434B5442;
+
+    // Men can't stand on their own king row, as they are crowned as soon as they get there
+    private static final int BLACK_MEN_SQUARES = 0xFFFFFFF0;
+    private static final int RED_MEN_SQUARES = 0x0FFFFFFF;
+
+    // Binomial coefficients, BINOMIAL[n][k] = n choose k
+    private static final long[][] BINOMIAL = new long[BitBoard.SQUARES + 1][MAX_PIECES + 1];
+
+    static {
+        for (int n = 0; n <= BitBoard.SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= MAX_PIECES; k++) {
+                BINOMIAL[n][k] = n == 0 ? 0 : BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    // Mapped slices, by slice number (see sliceOf)
+    private final ByteBuffer[] slices;
+    private int maxPieces;
+
+    public Tablebase() {
+        slices = new ByteBuffer[1 << 12];
+        maxPieces = 0;
+    }
+
+    // Maps every slice file in a directory
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                tablebase.add(file);
+            }
+        }
+        return tablebase;
+    }
+
+    // Maps a single slice file
+    public void add(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a tablebase file");
+        }
+        int slice = buffer.getInt(4);
+        int pieces = blackMenOf(slice) + blackKingsOf(slice) + redMenOf(slice) + redKingsOf(slice);
+        if (buffer.capacity() != HEADER_BYTES + (sizeOf(slice) + 3) / 4) {
+            throw new IOException(file + " is the wrong size");
+        }
+        slices[slice] = buffer;
+        maxPieces = Math.max(maxPieces, pieces);
+    }
+
+    // Return the result of a position for the side to move, or UNKNOWN if its slice isn't loaded
+    public int probe(BitBoard position) {
+        if (Integer.bitCount(position.getOccupied()) > maxPieces) {
+            return UNKNOWN;
+        }
+        ByteBuffer buffer = slices[sliceOf(position)];
+        if (buffer == null) {
+            return UNKNOWN;
+        }
+        int index = indexOf(position);
+        return (buffer.get(HEADER_BYTES + index / 4) >> (2 * (index % 4))) & 0x3;
+    }
+
+    // Return the largest number of pieces of any loaded slice
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public boolean hasSlice(int slice) {
+        return slices[slice] != null;
+    }
+
+    // Slices are numbered from their material, 3 bits per kind of piece
+    public static int sliceOf(int blackMen, int blackKings, int redMen, int redKings) {
+        return (blackMen << 9) | (blackKings << 6) | (redMen << 3) | redKings;
+    }
+
+    public static int sliceOf(BitBoard position) {
+        int kings = position.getKings();
+        return sliceOf(Integer.bitCount(position.getBlack() & ~kings), Integer.bitCount(position.getBlack() & kings),
+                Integer.bitCount(position.getRed() & ~kings), Integer.bitCount(position.getRed() & kings));
+    }
+
+    public static int blackMenOf(int slice) {
+        return (slice >> 9) & 0x7;
+    }
+
+    public static int blackKingsOf(int slice) {
+        return (slice >> 6) & 0x7;
+    }
+
+    public static int redMenOf(int slice) {
+        return (slice >> 3) & 0x7;
+    }
+
+    public static int redKingsOf(int slice) {
+        return slice & 0x7;
+    }
+
+    public static String fileNameOf(int slice) {
+        return "" + blackMenOf(slice) + blackKingsOf(slice) + redMenOf(slice) + redKingsOf(slice) + EXTENSION;
+    }
+
+    // Return the number of indexes in a slice
+    // Each kind of piece can be on any set of squares, so there are (32 choose count) placements for each kind,
+    // and each combination of placements appears twice, once with black to move and once with red to move.
+    // Some indexes are not real positions (two pieces on one square, or a man on its king row)
+    public static int sizeOf(int slice) {
+        long size = 2 * BINOMIAL[BitBoard.SQUARES][blackMenOf(slice)]
+                * BINOMIAL[BitBoard.SQUARES][blackKingsOf(slice)]
+                * BINOMIAL[BitBoard.SQUARES][redMenOf(slice)]
+                * BINOMIAL[BitBoard.SQUARES][redKingsOf(slice)];
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Slice " + fileNameOf(slice) + " is too large");
+        }
+        return (int) size;
+    }
+
+    // Return the index of a position within its slice
+    // The set of squares of each kind of piece is numbered with the combinatorial number system,
+    // and the four numbers and the side to move are combined as digits of a mixed base number
+    public static int indexOf(BitBoard position) {
+        int kings = position.getKings();
+        int blackMen = position.getBlack() & ~kings;
+        int blackKings = position.getBlack() & kings;
+        int redMen = position.getRed() & ~kings;
+        int redKings = position.getRed() & kings;
+        long index = rankOf(blackMen);
+        index = index * BINOMIAL[BitBoard.SQUARES][Integer.bitCount(blackKings)] + rankOf(blackKings);
+        index = index * BINOMIAL[BitBoard.SQUARES][Integer.bitCount(redMen)] + rankOf(redMen);
+        index = index * BINOMIAL[BitBoard.SQUARES][Integer.bitCount(redKings)] + rankOf(redKings);
+        return (int) (2 * index + (position.getSideToMove() == Side.BOTTOM ? 0 : 1));
+    }
+
+    // Sets a position to the one at an index of a slice
+    // Return false, leaving the position unchanged, if the index isn't a real position
+    public static boolean positionAt(int slice, int index, BitBoard position) {
+        Side sideToMove = index % 2 == 0 ? Side.BOTTOM : Side.TOP;
+        long rest = index / 2;
+        long redKingCount = BINOMIAL[BitBoard.SQUARES][redKingsOf(slice)];
+        int redKings = unrank(rest % redKingCount, redKingsOf(slice));
+        rest /= redKingCount;
+        long redMenCount = BINOMIAL[BitBoard.SQUARES][redMenOf(slice)];
+        int redMen = unrank(rest % redMenCount, redMenOf(slice));
+        rest /= redMenCount;
+        long blackKingCount = BINOMIAL[BitBoard.SQUARES][blackKingsOf(slice)];
+        int blackKings = unrank(rest % blackKingCount, blackKingsOf(slice));
+        rest /= blackKingCount;
+        int blackMen = unrank(rest, blackMenOf(slice));
+
+        int black = blackMen | blackKings;
+        int red = redMen | redKings;
+        int pieces = blackMenOf(slice) + blackKingsOf(slice) + redMenOf(slice) + redKingsOf(slice);
+        if (Integer.bitCount(black | red) != pieces
+                || (blackMen & ~BLACK_MEN_SQUARES) != 0 || (redMen & ~RED_MEN_SQUARES) != 0) {
+            return false;
+        }
+        position.setPosition(black, red, blackKings | redKings, sideToMove);
+        return true;
+    }
+
+    // Numbers a set of squares: for squares s1 < s2 < ... < sk it is (s1 choose 1) + (s2 choose 2) + ... + (sk choose k)
+    private static long rankOf(int mask) {
+        long rank = 0;
+        int k = 1;
+        while (mask != 0) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][k++];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    // The reverse of rankOf: picks the highest square that fits each time
+    private static int unrank(long rank, int count) {
+        int mask = 0;
+        int square = BitBoard.SQUARES - 1;
+        for (int k = count; k > 0; k--) {
+            while (BINOMIAL[square][k] > rank) {
+                square--;
+            }
+            mask |= 1 << square;
+            rank -= BINOMIAL[square][k];
+            square--;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,242 @@
+package main.java.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Builds the endgame tablebase files read by Tablebase, for every slice with up to maxPieces pieces
+// Run with: java main.java.impl.TablebaseGenerator <directory> [maxPieces] [threads]
+//
+// Slices are solved by retrograde analysis, working back from the end of the game:
+// * a position where the side to move has no moves is lost
+// * a position with a move to a lost position (for the opponent) is won
+// * a position where every move leads to a won position (for the opponent) is lost
+// The rules are applied to every position of a slice over and over until a pass resolves nothing new.
+// Anything left unresolved can never be forced either way, so it is a draw
+//
+// Takes lead to slices with fewer pieces and crowning leads to slices with fewer men, so slices are
+// solved in order of the number of pieces and then the number of men. Every move out of a slice then
+// leads to a slice that has already been solved and written, and is looked up in the tablebase
+//
+// Each pass is split into chunks of indexes that are solved in parallel on a fork/join pool. Results
+// only ever change from unresolved to won or lost, so a pass reading a result another thread has just
+// written is safe, it just resolves some positions a pass earlier. Slice files that already exist
+// are kept, so an interrupted run can be resumed
+public class TablebaseGenerator {
+
+    // Result of a position that isn't resolved yet. It is the same as Tablebase.DRAW, so anything
+    // still unresolved at the end is written as a draw
+    private static final byte UNRESOLVED = Tablebase.DRAW;
+
+    // Marks indexes that aren't real positions. Written as a draw, as they are never probed
+    private static final byte INVALID = 3;
+
+    // Number of indexes solved by a single task
+    private static final int CHUNK = 1 << 14;
+
+    private final Path directory;
+    private final int maxPieces;
+    private final ForkJoinPool pool;
+    private final Tablebase tablebase;
+
+    // Told a summary of each slice as it is solved. Nothing is done with them unless it is set
+    private Consumer<String> progress;
+
+    public TablebaseGenerator(Path directory, int maxPieces, int threads) {
+        if (maxPieces < 2 || maxPieces > Tablebase.MAX_PIECES) {
+            throw new IllegalArgumentException("maxPieces must be between 2 and " + Tablebase.MAX_PIECES);
+        }
+        this.directory = directory;
+        this.maxPieces = maxPieces;
+        pool = new ForkJoinPool(threads);
+        tablebase = new Tablebase();
+        progress = summary -> { };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TablebaseGenerator <directory> [maxPieces] [threads]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(directory, maxPieces, threads);
+        generator.setProgress(System.out::println);
+        generator.generate();
+    }
+
+    // Sets what is told the summary of each slice solved: its results, passes and time taken
+    public void setProgress(Consumer<String> progress) {
+        this.progress = progress;
+    }
+
+    // Solves and writes every slice, and returns a tablebase with all of them loaded
+    public Tablebase generate() throws IOException {
+        Files.createDirectories(directory);
+        try {
+            for (int slice : slicesInOrder()) {
+                Path file = directory.resolve(Tablebase.fileNameOf(slice));
+                if (!Files.exists(file)) {
+                    long start = System.nanoTime();
+                    byte[] results = new byte[Tablebase.sizeOf(slice)];
+                    int passes = solve(slice, results);
+                    write(slice, results, file);
+                    progress.accept(summary(slice, results, passes, (System.nanoTime() - start) / 1_000_000));
+                }
+                tablebase.add(file);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return tablebase;
+    }
+
+    // Every slice where both sides have at least one piece, in the order they need to be solved
+    private List<Integer> slicesInOrder() {
+        List<Integer> slices = new ArrayList<>();
+        for (int pieces = 2; pieces <= maxPieces; pieces++) {
+            for (int men = 0; men <= pieces; men++) {
+                for (int blackMen = 0; blackMen <= men; blackMen++) {
+                    for (int blackKings = 0; blackKings <= pieces - men; blackKings++) {
+                        int redMen = men - blackMen;
+                        int redKings = pieces - men - blackKings;
+                        if (blackMen + blackKings > 0 && redMen + redKings > 0) {
+                            slices.add(Tablebase.sliceOf(blackMen, blackKings, redMen, redKings));
+                        }
+                    }
+                }
+            }
+        }
+        return slices;
+    }
+
+    // Runs passes over the slice until nothing changes and returns the number of passes
+    private int solve(int slice, byte[] results) {
+        LongAdder resolved = new LongAdder();
+        int passes = 0;
+        do {
+            resolved.reset();
+            pool.invoke(new Pass(slice, results, 0, results.length, resolved));
+            passes++;
+        } while (resolved.sum() > 0);
+        return passes;
+    }
+
+    // Solves the unresolved positions in a range of indexes, splitting it up until it is small enough
+    private class Pass extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int slice;
+        private final byte[] results;
+        private final int start;
+        private final int end;
+        private final LongAdder resolved;
+
+        Pass(int slice, byte[] results, int start, int end, LongAdder resolved) {
+            this.slice = slice;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.resolved = resolved;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Pass(slice, results, start, middle, resolved),
+                        new Pass(slice, results, middle, end, resolved));
+                return;
+            }
+
+            BitBoard position = new BitBoard();
+            MoveList moves = new MoveList();
+            int count = 0;
+            for (int index = start; index < end; index++) {
+                if (results[index] != UNRESOLVED) {
+                    continue;
+                }
+                if (!Tablebase.positionAt(slice, index, position)) {
+                    results[index] = INVALID;
+                    count++;
+                    continue;
+                }
+                int result = resultOf(position, moves, slice, results);
+                if (result != UNRESOLVED) {
+                    results[index] = (byte) result;
+                    count++;
+                }
+            }
+            resolved.add(count);
+        }
+    }
+
+    // Applies the rules to a single position using what is known about the positions its moves lead to
+    private int resultOf(BitBoard position, MoveList moves, int slice, byte[] results) {
+        MoveGenerator.generate(position, moves);
+        if (moves.isEmpty()) {
+            return Tablebase.LOSS;
+        }
+        boolean allWon = true;
+        for (int i = 0; i < moves.size(); i++) {
+            position.makeMove(moves.get(i), moves.getVictims(i));
+            int result = successorResult(position, slice, results);
+            position.undoMove();
+            if (result == Tablebase.LOSS) {
+                return Tablebase.WIN;
+            }
+            if (result != Tablebase.WIN) {
+                allWon = false;
+            }
+        }
+        return allWon ? Tablebase.LOSS : UNRESOLVED;
+    }
+
+    // Return the result of a position reached by a move, which is either in the slice being solved
+    // or in a slice that has already been solved
+    private int successorResult(BitBoard position, int slice, byte[] results) {
+        if (position.getPieces(position.getSideToMove()) == 0) {
+            return Tablebase.LOSS;
+        }
+        int successorSlice = Tablebase.sliceOf(position);
+        if (successorSlice == slice) {
+            return results[Tablebase.indexOf(position)];
+        }
+        return tablebase.probe(position);
+    }
+
+    // Packs the results 4 to a byte after the header, and writes them to a temporary file that is
+    // then renamed, so a slice file is never left half written
+    private static void write(int slice, byte[] results, Path file) throws IOException {
+        byte[] bytes = new byte[Tablebase.HEADER_BYTES + (results.length + 3) / 4];
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.putInt(Tablebase.MAGIC);
+        header.putInt(slice);
+        for (int index = 0; index < results.length; index++) {
+            int result = results[index] == INVALID ? Tablebase.DRAW : results[index];
+            bytes[Tablebase.HEADER_BYTES + index / 4] |= result << (2 * (index % 4));
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, bytes);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String summary(int slice, byte[] results, int passes, long millis) {
+        int[] counts = new int[4];
+        for (byte result : results) {
+            counts[result]++;
+        }
+        return Tablebase.fileNameOf(slice) + ": " + counts[Tablebase.WIN] + " won, " + counts[Tablebase.DRAW]
+                + " drawn, " + counts[Tablebase.LOSS] + " lost, " + passes + " passes, " + millis + "ms";
+    }
+}
@@ -0,0 +1,40 @@
+package main.java.impl;
+
+import java.util.List;
+
+import main.java.gui.Piece;
+
+// This class extends take to represent a whole chain of takes made by one piece in a single turn
+// It contains the squares the piece lands on, in order, and every piece that is taken on the way
+// The destination of the sequence is the last landing square and its target is the first piece taken
+public class TakeSequence extends Take {
+
+    private final List<Position> path;
+    private final List<Piece> targets;
+
+    public TakeSequence(Piece taker, List<Position> path, List<Piece> targets) {
+        super(taker, path.get(path.size() - 1), targets.get(0));
+        this.path = path;
+        this.targets = targets;
+    }
+
+    // return the squares landed on, in the order they are landed on
+    public List<Position> getPath() {
+        return path;
+    }
+
+    // return every piece that is taken
+    public List<Piece> getTargets() {
+        return targets;
+    }
+
+    @Override
+    public boolean moveCausedKing() {
+        return targets.stream().anyMatch(Piece::isKing) || dest.getY() == 0 || dest.getY() == Board.HEIGHT-1;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getOrigin().toString() + ", " + path.toString() + ", Attacker: " + piece.toString() + ", Victims: " + targets.toString() + "]";
+    }
+}
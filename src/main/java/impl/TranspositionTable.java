@@ -0,0 +1,132 @@
+package main.java.impl;
+
+import java.util.Arrays;
+
+// A fixed size cache of search results, indexed by the Zobrist hash of the position searched
+// The same position is often reached through different orders of moves (a transposition), and
+// positions searched last turn come up again this turn, so remembering results saves searching them again
+//
+// Each entry is two longs: a packed data word holding the best move, score, depth, bound and the search
+// it was stored in, and the full hash XORed with the data word, to check the entry belongs to the position.
+// Probing returns the data word, or 0 if the position isn't stored, so the search doesn't allocate
+//
+// The table can be shared by several searching threads without locking. Two threads writing the same
+// slot at once can leave one thread's key with the other's data, but then the key no longer XORs back
+// to the hash and the entry is treated as empty, so a probe never returns another position's result
+public class TranspositionTable {
+
+    // How to decide whether a new result should overwrite the entry already in its slot
+    public enum ReplacementPolicy {
+        // Keep the deeper result unless the stored one is from an earlier search
+        DEPTH_PREFERRED,
+        // Always keep the newest result
+        ALWAYS_REPLACE
+    }
+
+    public static final int DEFAULT_MEGABYTES = 32;
+
+    private static final int ENTRY_BYTES = 16;
+
+    // Data word layout
+    private static final int MOVE_BITS = 18;
+    private static final int SCORE_SHIFT = 18;
+    private static final int DEPTH_SHIFT = 34;
+    private static final int BOUND_SHIFT = 42;
+    private static final int AGE_SHIFT = 44;
+    private static final long VALID = 1L << 63;
+    private static final Bound[] BOUNDS = Bound.values();
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private final ReplacementPolicy policy;
+
+    // Incremented for every new search so that results from earlier searches can be replaced first
+    private int age;
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    // Creates the largest table with a power of two number of entries that fits in the memory budget
+    public TranspositionTable(int megabytes, ReplacementPolicy policy) {
+        long budget = Math.max(1, megabytes) * 1024L * 1024L / ENTRY_BYTES;
+        int entries = Integer.highestOneBit((int) Math.min(budget, 1 << 30));
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 1;
+        this.policy = policy;
+        age = 0;
+    }
+
+    // Marks the start of a new search
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    // Removes every entry
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    // Return the data word stored for a position, or 0 if there isn't one
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = data[index];
+        return (keys[index] ^ entry) == hash ? entry : 0;
+    }
+
+    // Stores a search result for a position, subject to the replacement policy
+    public void store(long hash, int depth, int score, Bound bound, int move) {
+        int index = (int) hash & mask;
+        long existing = data[index];
+        boolean samePosition = existing != 0 && (keys[index] ^ existing) == hash;
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED && existing != 0 && !samePosition
+                && ageOf(existing) == age && depthOf(existing) > depth) {
+            return;
+        }
+        // Keep the best move already known for this position if the new result doesn't have one
+        if (move == PackedMove.NONE && samePosition) {
+            move = moveOf(existing);
+        }
+        long entry = VALID
+                | ((long) age << AGE_SHIFT)
+                | ((long) bound.ordinal() << BOUND_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | (move + 1);
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    // Return the number of entries the table can hold
+    public int capacity() {
+        return keys.length;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return policy;
+    }
+
+    // Return the best move stored in a data word, or PackedMove.NONE
+    public static int moveOf(long entry) {
+        return (int) (entry & ((1L << MOVE_BITS) - 1)) - 1;
+    }
+
+    public static int scoreOf(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static Bound boundOf(long entry) {
+        return BOUNDS[(int) (entry >>> BOUND_SHIFT) & 0x3];
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & 0xFF;
+    }
+}
@@ -0,0 +1,70 @@
+package main.java.impl;
+
+// Random 64 bit keys used to give every BitBoard position a hash (Zobrist hashing)
+// A position's hash is the XOR of the key for each piece on each square, plus the side key
+// when it is red's turn. Because XOR undoes itself, moving, taking or crowning a piece only needs a
+// couple of XORs to update the hash rather than hashing the whole board again
+// The keys come from a fixed seed so hashes are the same every time the game runs, which lets
+// hashes be saved to files (e.g. opening books)
+public final class Zobrist {
+
+    // Piece kinds
+    public static final int BLACK_MAN = 0;
+    public static final int BLACK_KING = 1;
+    public static final int RED_MAN = 2;
+    public static final int RED_KING = 3;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[][] PIECE_KEYS = new long[4][BitBoard.SQUARES];
+    private static final long SIDE_KEY;
+
+    static {
+        long state = SEED;
+        for (int kind = 0; kind < PIECE_KEYS.length; kind++) {
+            for (int square = 0; square < BitBoard.SQUARES; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                PIECE_KEYS[kind][square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_KEY = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    // Return the key for a piece of the given side and rank on a square
+    public static long pieceKey(Side side, boolean isKing, int square) {
+        return PIECE_KEYS[kindOf(side, isKing)][square];
+    }
+
+    // Return the key that is included in the hash when it is red's turn
+    public static long sideKey() {
+        return SIDE_KEY;
+    }
+
+    public static int kindOf(Side side, boolean isKing) {
+        if (side == Side.BOTTOM) {
+            return isKing ? BLACK_KING : BLACK_MAN;
+        }
+        return isKing ? RED_KING : RED_MAN;
+    }
+
+    // Return the hash of the pieces of one kind on every square in a mask
+    public static long maskKey(int kind, int mask) {
+        long key = 0;
+        while (mask != 0) {
+            key ^= PIECE_KEYS[kind][Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return key;
+    }
+
+    // SplitMix64 finaliser, which spreads the bits of a counter into a well distributed random number
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
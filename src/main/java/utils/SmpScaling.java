@@ -0,0 +1,70 @@
+package main.java.utils;
+
+import java.util.Arrays;
+
+import main.java.impl.BitBoard;
+import main.java.impl.LazySmpSearch;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.TranspositionTable;
+
+// Measures how the Lazy SMP search scales with the number of threads
+// For 1, 2, 4, 8, 16 and 32 threads it searches the same positions to the same depth and prints the
+// time taken to reach that depth, the nodes searched per second and the speed up over one thread
+// Run with: java main.java.utils.SmpScaling [depth] [maxThreads]
+public class SmpScaling {
+
+    // Positions are taken from a game where both sides always play their first move,
+    // starting after this many moves and this many moves apart
+    private static final int FIRST_POSITION = 4;
+    private static final int POSITION_SPACING = 6;
+    private static final int POSITIONS = 4;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        BitBoard[] positions = positions();
+
+        System.out.println("Depth " + depth + ", " + positions.length + " positions, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.printf("%8s %14s %14s %12s %10s%n", "threads", "time to depth", "nodes", "nodes/s", "speed up");
+        double oneThreadMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            LazySmpSearch search = new LazySmpSearch(threads,
+                    new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (BitBoard position : positions) {
+                search.getTable().clear();
+                search.findBestMove(position, depth);
+                nodes += search.getNodes();
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0;
+            search.shutdown();
+
+            if (threads == 1) {
+                oneThreadMillis = millis;
+            }
+            System.out.printf("%8d %12.0fms %14d %12.0f %9.2fx%n",
+                    threads, millis, nodes, nodes / (millis / 1000), oneThreadMillis / millis);
+        }
+    }
+
+    private static BitBoard[] positions() {
+        BitBoard[] positions = new BitBoard[POSITIONS];
+        BitBoard position = BitBoard.initial();
+        MoveList moves = new MoveList();
+        int found = 0;
+        for (int ply = 0; found < POSITIONS; ply++) {
+            if (ply >= FIRST_POSITION && (ply - FIRST_POSITION) % POSITION_SPACING == 0) {
+                positions[found++] = position.copy();
+            }
+            MoveGenerator.generate(position, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            position.makeMove(moves.get(0), moves.getVictims(0));
+        }
+        return found == POSITIONS ? positions : Arrays.copyOf(positions, found);
+    }
+}
@@ -0,0 +1,251 @@
+package main.java.utils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.java.impl.BitBoard;
+import main.java.impl.Evaluation;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.PackedMove;
+import main.java.impl.Search;
+import main.java.impl.Side;
+import main.java.impl.TranspositionTable;
+
+// Plays games between two engine configurations without the GUI, to measure whether a change to
+// the engine makes it stronger (see TournamentResult for the statistics reported)
+//
+// Games are played in pairs from the same opening, made of a few random moves, with each engine
+// playing black in one game of the pair and red in the other, so neither gains from a lucky opening
+// or from the side it plays. Pairs are shared out between worker threads, each with its own pair of
+// Searches, and the tournament stops early once the SPRT has reached a verdict
+// Games are drawn by threefold repetition, or once drawPlies moves in a row have been made without a take
+// or a man moving (see BitBoard.isDraw). Every man can only move so far and every take removes a piece,
+// so every game ends
+//
+// An engine configuration is a list of settings, e.g. "name=new,eval=new.properties,millis=100", where
+// * name - shown in the report
+// * eval - a properties file of evaluation weights (see Evaluation.load), the default weights if missing
+// * millis - the time to search each move for (100 by default)
+// * depth - search each move to this depth instead of for a time
+// * hash - the size of the transposition table in megabytes (4 by default)
+//
+// Run with: java main.java.utils.Tournament <engineA> <engineB> [games] [threads]
+public class Tournament {
+
+    // Random moves played to make each opening
+    public static final int DEFAULT_OPENING_PLIES = 4;
+
+    private static final double SPRT_ELO0 = 0;
+    private static final double SPRT_ELO1 = 10;
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+
+    // Progress is printed after this many games
+    private static final int REPORT_EVERY = 100;
+
+    private final EngineConfig first;
+    private final EngineConfig second;
+    private final int threads;
+    private final long seed;
+    private final int openingPlies;
+    private final int drawPlies;
+
+    // The settings of one of the engines playing
+    public static class EngineConfig {
+        private final String name;
+        private final Evaluation evaluation;
+        private final long millis;
+        private final int depth;
+        private final int megabytes;
+
+        public EngineConfig(String name, Evaluation evaluation, long millis, int depth, int megabytes) {
+            this.name = name;
+            this.evaluation = evaluation;
+            this.millis = millis;
+            this.depth = depth;
+            this.megabytes = megabytes;
+        }
+
+        // Reads a configuration written as comma separated key=value settings
+        public static EngineConfig parse(String settings) throws IOException {
+            String name = settings;
+            Evaluation evaluation = Evaluation.DEFAULT;
+            long millis = 100;
+            int depth = 0;
+            int megabytes = 4;
+            for (String setting : settings.split(",")) {
+                String[] keyValue = setting.split("=", 2);
+                if (keyValue.length != 2) {
+                    throw new IllegalArgumentException("Expected key=value but got " + setting);
+                }
+                String value = keyValue[1].trim();
+                switch (keyValue[0].trim()) {
+                    case "name": name = value;
+                        break;
+                    case "eval": evaluation = Evaluation.load(Paths.get(value));
+                        break;
+                    case "millis": millis = Long.parseLong(value);
+                        break;
+                    case "depth": depth = Integer.parseInt(value);
+                        break;
+                    case "hash": megabytes = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown engine setting " + keyValue[0]);
+                }
+            }
+            return new EngineConfig(name, evaluation, millis, depth, megabytes);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        Search createSearch() {
+            return new Search(new TranspositionTable(megabytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        }
+
+        // Searches the position with these settings and returns the move, with its victims left in the search
+        int findBestMove(Search search, BitBoard position) {
+            position.setEvaluation(evaluation);
+            return depth > 0 ? search.findBestMove(position, depth) : search.findBestMoveWithin(position, millis);
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + (depth > 0 ? "depth " + depth : millis + "ms") + ", " + evaluation + ")";
+        }
+    }
+
+    public Tournament(EngineConfig first, EngineConfig second, int threads, long seed) {
+        this(first, second, threads, seed, DEFAULT_OPENING_PLIES, BitBoard.DEFAULT_DRAW_PLIES);
+    }
+
+    public Tournament(EngineConfig first, EngineConfig second, int threads, long seed, int openingPlies, int drawPlies) {
+        this.first = first;
+        this.second = second;
+        this.threads = threads;
+        this.seed = seed;
+        this.openingPlies = openingPlies;
+        this.drawPlies = drawPlies;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <engineA> <engineB> [games] [threads]");
+            System.out.println("Engines are settings like name=new,eval=new.properties,millis=100,depth=0,hash=4");
+            return;
+        }
+        EngineConfig first = EngineConfig.parse(args[0]);
+        EngineConfig second = EngineConfig.parse(args[1]);
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println(first + " vs " + second + ", " + games + " games on " + threads + " threads");
+        TournamentResult result = new Tournament(first, second, threads, System.nanoTime()).play(games, true);
+        System.out.println(result);
+    }
+
+    // Plays up to the given number of games (rounded up to whole pairs) and returns the results
+    // from the first engine's point of view
+    public TournamentResult play(int games, boolean printProgress) throws InterruptedException {
+        TournamentResult result = new TournamentResult(SPRT_ELO0, SPRT_ELO1, SPRT_ALPHA, SPRT_BETA);
+        int pairs = (games + 1) / 2;
+        AtomicInteger nextPair = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    Search firstSearch = first.createSearch();
+                    Search secondSearch = second.createSearch();
+                    int pair;
+                    while ((pair = nextPair.getAndIncrement()) < pairs
+                            && result.getVerdict() == TournamentResult.Verdict.CONTINUE) {
+                        BitBoard opening = randomOpening(new Random(seed + pair));
+                        int firstResult = playGame(opening, first, firstSearch, second, secondSearch);
+                        int secondResult = -playGame(opening, second, secondSearch, first, firstSearch);
+                        int played = result.addPair(firstResult, secondResult);
+                        // Report once each time the total passes a multiple of REPORT_EVERY, whichever
+                        // worker's pair takes it there
+                        if (printProgress && played / REPORT_EVERY != (played - 2) / REPORT_EVERY) {
+                            synchronized (result) {
+                                System.out.printf("%d games: W %d / D %d / L %d, Elo %.1f +/- %.1f, LLR %.2f%n",
+                                        result.getGames(), result.getWins(), result.getDraws(), result.getLosses(),
+                                        result.getEloDifference(), result.getEloError(),
+                                        result.getLogLikelihoodRatio());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament game failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        result.finish();
+        return result;
+    }
+
+    // Plays random moves from the starting position, starting again if they end the game
+    private BitBoard randomOpening(Random random) {
+        MoveList moves = new MoveList();
+        while (true) {
+            BitBoard position = BitBoard.initial();
+            int ply = 0;
+            for (; ply < openingPlies; ply++) {
+                MoveGenerator.generate(position, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int i = random.nextInt(moves.size());
+                position.makeMove(moves.get(i), moves.getVictims(i));
+            }
+            MoveGenerator.generate(position, moves);
+            if (ply == openingPlies && !moves.isEmpty()) {
+                return position.copy();
+            }
+        }
+    }
+
+    // Plays a game from the opening and returns the result for the engine that plays black:
+    // 1 for a win, 0 for a draw and -1 for a loss. A side with no moves left has lost
+    private int playGame(BitBoard opening, EngineConfig black, Search blackSearch, EngineConfig red, Search redSearch) {
+        blackSearch.getTable().clear();
+        redSearch.getTable().clear();
+        BitBoard position = opening.copy();
+        position.setDrawPlies(drawPlies);
+        while (true) {
+            if (!MoveGenerator.hasAnyMove(position)) {
+                return position.getSideToMove() == Side.BOTTOM ? -1 : 1;
+            }
+            if (position.isDraw()) {
+                return 0;
+            }
+            // A copy keeps the history a draw can come from, but not the moves, so the undo stack can't fill up
+            if (position.getUndoSize() == BitBoard.MAX_UNDO) {
+                position = position.copy();
+            }
+            boolean blackToMove = position.getSideToMove() == Side.BOTTOM;
+            Search search = blackToMove ? blackSearch : redSearch;
+            int move = (blackToMove ? black : red).findBestMove(search, position);
+            if (move == PackedMove.NONE) {
+                throw new IllegalStateException("No move found in\n" + position);
+            }
+            position.makeMove(move, search.getBestVictims());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package main.java.utils;
+
+// The results of a Tournament from the first engine's point of view, and the statistics worked out from them:
+// * Elo difference - how much stronger the first engine is, worked out from its average score
+//   per game, with a 95% confidence interval
+// * SPRT (sequential probability ratio test) - whether the results so far are enough to say that the
+//   first engine is at least elo1 stronger (H1), or no stronger than elo0 (H0). The log likelihood
+//   ratio of the two is compared with bounds set by the chances alpha and beta of accepting the wrong one
+//
+// Scores use a normal approximation: each game scores 1, 0.5 or 0 for the first engine, and the
+// mean and variance of those scores are all that is needed. The variance counts half a pseudo game
+// each of a win, a draw and a loss, so a run of nothing but wins (or losses) still has some spread
+// and can reach a verdict, and the score is kept half a game away from 0 and 1 so the Elo is finite
+public class TournamentResult {
+
+    public enum Verdict {
+        H0_ACCEPTED, H1_ACCEPTED, CONTINUE
+    }
+
+    private static final double PSEUDO_GAMES = 0.5;
+
+    private final double elo0;
+    private final double elo1;
+    private final double alpha;
+    private final double beta;
+
+    private int wins;
+    private int draws;
+    private int losses;
+    private long startNanos;
+    private long endNanos;
+
+    public TournamentResult(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+        startNanos = System.nanoTime();
+    }
+
+    // Records a game's result for the first engine: 1 for a win, 0 for a draw, -1 for a loss
+    public synchronized void add(int result) {
+        if (result > 0) {
+            wins++;
+        } else if (result < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    // Records both games of a pair at once and returns the number of games played so far, counting them
+    public synchronized int addPair(int firstResult, int secondResult) {
+        add(firstResult);
+        add(secondResult);
+        return getGames();
+    }
+
+    synchronized void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    // Return the first engine's average score per game
+    public synchronized double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    // Return the variance of the first engine's score in a single game, with half a pseudo game
+    // added to each of the wins, draws and losses
+    private synchronized double variance() {
+        double w = wins + PSEUDO_GAMES;
+        double d = draws + PSEUDO_GAMES;
+        double l = losses + PSEUDO_GAMES;
+        double games = w + d + l;
+        double score = (w + 0.5 * d) / games;
+        return (w * (1 - score) * (1 - score) + d * (0.5 - score) * (0.5 - score) + l * score * score) / games;
+    }
+
+    // Return the score kept half a game away from 0 and 1
+    private synchronized double clamp(double score) {
+        double margin = 0.5 / Math.max(getGames(), 1);
+        return Math.min(Math.max(score, margin), 1 - margin);
+    }
+
+    // Return the Elo difference that gives an expected score
+    public static double eloOf(double score) {
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    // Return the expected score of a player this much stronger in Elo than their opponent
+    public static double scoreOf(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    public synchronized double getEloDifference() {
+        return eloOf(clamp(getScore()));
+    }
+
+    // Return half the width of the 95% confidence interval of the Elo difference
+    public synchronized double getEloError() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double error = 1.96 * Math.sqrt(variance() / games);
+        double score = getScore();
+        return (eloOf(clamp(score + error)) - eloOf(clamp(score - error))) / 2;
+    }
+
+    // Return the log likelihood ratio of H1 (the first engine is elo1 stronger) over H0 (it is elo0 stronger)
+    public synchronized double getLogLikelihoodRatio() {
+        double variance = variance();
+        double score0 = scoreOf(elo0);
+        double score1 = scoreOf(elo1);
+        return getGames() * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+    }
+
+    public double getLowerBound() {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    public double getUpperBound() {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    public Verdict getVerdict() {
+        double llr = getLogLikelihoodRatio();
+        if (llr >= getUpperBound()) {
+            return Verdict.H1_ACCEPTED;
+        } else if (llr <= getLowerBound()) {
+            return Verdict.H0_ACCEPTED;
+        }
+        return Verdict.CONTINUE;
+    }
+
+    public synchronized double getGamesPerSecond() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return getGames() / Math.max((end - startNanos) / 1_000_000_000.0, 1e-9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Games %d: W %d / D %d / L %d, score %.1f%%%n"
+                        + "Elo difference %.1f +/- %.1f (95%%)%n"
+                        + "SPRT elo0=%.0f elo1=%.0f alpha=%.2f beta=%.2f: LLR %.2f [%.2f, %.2f] %s%n"
+                        + "%.2f games/s",
+                getGames(), getWins(), getDraws(), getLosses(), 100 * getScore(),
+                getEloDifference(), getEloError(),
+                elo0, elo1, alpha, beta, getLogLikelihoodRatio(), getLowerBound(), getUpperBound(), getVerdict(),
+                getGamesPerSecond());
+    }
+}
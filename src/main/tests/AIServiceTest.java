@@ -0,0 +1,149 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import main.java.impl.AIService;
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.PackedMove;
+import main.java.impl.Search;
+import main.java.impl.SearchResult;
+
+public class AIServiceTest {
+
+    @Test
+    public void testFindMoveCompletesWithALegalMove() throws Exception {
+        AIService service = new AIService(new Search());
+        try {
+            BitBoard position = BitBoard.initial();
+            CompletableFuture<SearchResult> request = service.findMove(position, 100);
+            SearchResult result = request.get(5, TimeUnit.SECONDS);
+
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(position, moves);
+            assertNotEquals(PackedMove.NONE, result.getMove());
+            assertTrue(moves.contains(result.getMove(), result.getVictims()));
+            assertTrue(result.getDepth() > 0);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelStopsTheSearchQuickly() throws Exception {
+        AIService service = new AIService(new Search());
+        try {
+            // A first search so the time to cancel isn't the time taken to load and compile the search
+            service.findMove(BitBoard.initial(), 200).get(5, TimeUnit.SECONDS);
+
+            CompletableFuture<SearchResult> request = service.findMove(BitBoard.initial(), 60_000);
+            Thread.sleep(50);
+            long start = System.nanoTime();
+            service.cancel();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(request.isCancelled());
+            assertFalse(service.isBusy());
+            assertTrue("Cancelling took " + millis + "ms", millis < 100);
+
+            // The engine is free for the next request straight away
+            SearchResult next = service.findMove(BitBoard.initial(), 50).get(5, TimeUnit.SECONDS);
+            assertNotEquals(PackedMove.NONE, next.getMove());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancellingTheFutureStopsTheSearch() throws Exception {
+        Search search = new Search();
+        AIService service = new AIService(search);
+        try {
+            CompletableFuture<SearchResult> request = service.findMove(BitBoard.initial(), 60_000);
+            Thread.sleep(50);
+            request.cancel(true);
+            SearchResult next = service.findMove(BitBoard.initial(), 50).get(5, TimeUnit.SECONDS);
+            assertNotEquals(PackedMove.NONE, next.getMove());
+            assertEquals(search.getCompletedDepth(), next.getDepth());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testPonderHitAnswersWithoutSearchingAgain() throws Exception {
+        AIService service = new AIService(new Search());
+        try {
+            BitBoard position = BitBoard.initial();
+            service.ponder(position);
+            assertTrue(service.isPonderingOn(position));
+            Thread.sleep(300);
+
+            // The time spent pondering already covers the budget, so the move comes back at once
+            long start = System.nanoTime();
+            SearchResult result = service.findMove(position, 200).get(5, TimeUnit.SECONDS);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue("Answering took " + millis + "ms", millis < 100);
+            assertNotEquals(PackedMove.NONE, result.getMove());
+            assertEquals(1, service.getPonderHits());
+            assertFalse(service.isPonderingOn(position));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testPonderMissSearchesTheNewPosition() throws Exception {
+        AIService service = new AIService(new Search());
+        try {
+            BitBoard predicted = BitBoard.initial();
+            service.ponder(predicted);
+            Thread.sleep(50);
+
+            BitBoard actual = BitBoard.initial();
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(actual, moves);
+            actual.makeMove(moves.get(0), moves.getVictims(0));
+            SearchResult result = service.findMove(actual, 100).get(5, TimeUnit.SECONDS);
+
+            MoveGenerator.generate(actual, moves);
+            assertTrue(moves.contains(result.getMove(), result.getVictims()));
+            assertEquals(1, service.getPonderMisses());
+            assertEquals(0, service.getPonderHits());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancellingARequestStopsItsSearchEvenBeforeItStarts() throws Exception {
+        AIService service = new AIService(new Search());
+        try {
+            // Some of these are cancelled before the engine has started searching, when a single stop is lost
+            for (int i = 0; i < 20; i++) {
+                CompletableFuture<SearchResult> request = service.findMove(BitBoard.initial(), 60_000);
+                if (i % 2 == 1) {
+                    Thread.sleep(1);
+                }
+                request.cancel(false);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+                while (service.isBusy() && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertFalse(service.isBusy());
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.Board;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.Side;
+
+public class BitBoardTest {
+
+    @Test
+    public void testSquaresMapOntoBrownTilesOnly() {
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            int x = BitBoard.xOf(square);
+            int y = BitBoard.yOf(square);
+            assertTrue((x + y) % 2 != 0);
+            assertEquals(square, BitBoard.squareOf(x, y));
+        }
+        assertEquals(-1, BitBoard.squareOf(0, 0));
+        assertEquals(-1, BitBoard.squareOf(Board.WIDTH, 1));
+    }
+
+    @Test
+    public void testInitialPositionMatchesGameSetUp() {
+        BitBoard position = BitBoard.initial();
+
+        for (int y = 0; y < Board.HEIGHT; y++) {
+            for (int x = 0; x < Board.WIDTH; x++) {
+                int square = BitBoard.squareOf(x, y);
+                if (square == -1) {
+                    continue;
+                }
+                if (y <= 2) {
+                    assertEquals(Side.TOP, position.sideAt(square));
+                } else if (y >= 5) {
+                    assertEquals(Side.BOTTOM, position.sideAt(square));
+                } else {
+                    assertFalse(position.hasPiece(square));
+                }
+            }
+        }
+        assertEquals(12, position.pieceCount(Side.BOTTOM));
+        assertEquals(12, position.pieceCount(Side.TOP));
+        assertEquals(Side.BOTTOM, position.getSideToMove());
+    }
+
+    @Test
+    public void testSetAndRemovePiece() {
+        BitBoard position = new BitBoard();
+        position.setPiece(13, Side.TOP, true);
+
+        assertEquals(Side.TOP, position.sideAt(13));
+        assertTrue(position.isKing(13));
+        assertEquals(1, position.kingCount(Side.TOP));
+
+        position.removePiece(13);
+        assertFalse(position.hasPiece(13));
+        assertEquals(0, position.getKings());
+    }
+
+    @Test
+    public void testUndoRestoresThePositionBeforeEachMove() {
+        // A red king that can take a black king, and a black king already on red's back row
+        BitBoard position = new BitBoard();
+        position.setPiece(BitBoard.squareOf(3, 4), Side.TOP, true);
+        position.setPiece(BitBoard.squareOf(4, 5), Side.BOTTOM, true);
+        position.setPiece(BitBoard.squareOf(1, 0), Side.BOTTOM, true);
+        position.setPiece(BitBoard.squareOf(6, 1), Side.TOP, false);
+        BitBoard before = position.copy();
+
+        for (Side side : Side.values()) {
+            position.setSideToMove(side);
+            before.setSideToMove(side);
+
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(position, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                position.makeMove(moves.get(i), moves.getVictims(i));
+                position.undoMove();
+                assertEquals(before, position);
+            }
+        }
+        assertEquals(0, position.getUndoSize());
+    }
+
+    @Test
+    public void testHashIsKeptUpToDateThroughMovesAndUndos() {
+        BitBoard position = BitBoard.initial();
+        long initialHash = position.getHash();
+        MoveList moves = new MoveList();
+
+        // Play the first move available each turn, checking the incremental hash against a fresh one
+        for (int ply = 0; ply < 40; ply++) {
+            MoveGenerator.generate(position, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            long before = position.getHash();
+            position.makeMove(moves.get(0), moves.getVictims(0));
+            assertNotEquals(before, position.getHash());
+            assertEquals(position.copy().getHash(), position.getHash());
+        }
+
+        while (position.getUndoSize() > 0) {
+            position.undoMove();
+        }
+        assertEquals(initialHash, position.getHash());
+    }
+
+    @Test
+    public void testScoreIsKeptUpToDateThroughMovesAndUndos() {
+        BitBoard position = BitBoard.initial();
+        assertEquals(0, position.getScore());
+        MoveList moves = new MoveList();
+        Random random = new Random(3);
+
+        // Random games, so that takes, chains and crowning all happen
+        for (int game = 0; game < 20; game++) {
+            for (int ply = 0; ply < 120; ply++) {
+                MoveGenerator.generate(position, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int i = random.nextInt(moves.size());
+                position.makeMove(moves.get(i), moves.getVictims(i));
+                assertEquals(position.copy().getScore(), position.getScore());
+            }
+            while (position.getUndoSize() > 0) {
+                position.undoMove();
+            }
+            assertEquals(0, position.getScore());
+        }
+    }
+}
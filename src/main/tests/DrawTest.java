@@ -0,0 +1,119 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.PackedMove;
+import main.java.impl.Search;
+import main.java.impl.Side;
+
+public class DrawTest {
+
+    // A black king in the bottom left corner and a red king in the top right corner, black to move
+    private static BitBoard kingsOnly() {
+        return new BitBoard(1 << 28, 1 << 3, (1 << 28) | (1 << 3), Side.BOTTOM);
+    }
+
+    private static void move(BitBoard position, int from, int to) {
+        position.makeMove(PackedMove.move(from, to, false), 0);
+    }
+
+    // Both kings step out and back again, returning to the position before
+    private static void shuffle(BitBoard position) {
+        move(position, 28, 24);
+        move(position, 3, 7);
+        move(position, 24, 28);
+        move(position, 7, 3);
+    }
+
+    @Test
+    public void testThreefoldRepetitionIsADraw() {
+        BitBoard position = kingsOnly();
+        assertEquals(0, position.repetitions());
+        shuffle(position);
+        assertEquals(1, position.repetitions());
+        assertFalse(position.isDraw());
+        shuffle(position);
+        assertEquals(2, position.repetitions());
+        assertTrue(position.isDraw());
+
+        position.undoMove();
+        assertEquals(1, position.repetitions());
+        assertFalse(position.isDraw());
+    }
+
+    @Test
+    public void testQuietMoveLimitIsADraw() {
+        BitBoard position = new BitBoard(1 << 28 | 1 << 21, 1 << 3, (1 << 28) | (1 << 3), Side.BOTTOM);
+        position.setDrawPlies(3);
+        move(position, 28, 24);
+        move(position, 3, 7);
+        assertEquals(2, position.getQuietPlies());
+        assertFalse(position.isDraw());
+
+        // A man moving can't be undone, so it starts the count again and earlier positions can't repeat
+        move(position, 21, 17);
+        assertEquals(0, position.getQuietPlies());
+        move(position, 7, 3);
+        move(position, 24, 28);
+        move(position, 3, 7);
+        assertEquals(3, position.getQuietPlies());
+        assertTrue(position.isDraw());
+
+        position.undoMove();
+        assertEquals(2, position.getQuietPlies());
+        assertFalse(position.isDraw());
+    }
+
+    @Test
+    public void testCopiesKeepTheHistory() {
+        BitBoard position = kingsOnly();
+        shuffle(position);
+        shuffle(position);
+
+        BitBoard copy = position.copy();
+        assertEquals(0, copy.getUndoSize());
+        assertEquals(2, copy.repetitions());
+        assertEquals(position.getQuietPlies(), copy.getQuietPlies());
+
+        BitBoard overwritten = new BitBoard();
+        overwritten.copyFrom(position);
+        assertEquals(2, overwritten.repetitions());
+
+        overwritten.setPosition(position.getBlack(), position.getRed(), position.getKings(), Side.BOTTOM);
+        assertEquals(0, overwritten.repetitions());
+        assertEquals(0, overwritten.getQuietPlies());
+    }
+
+    @Test
+    public void testSearchScoresARepeatedPositionAsADraw() {
+        int repeating = PackedMove.move(28, 24, false);
+        BitBoard fresh = kingsOnly();
+        BitBoard repeated = kingsOnly();
+        shuffle(repeated);
+
+        Search search = new Search();
+        int freshScore = search.scoreMove(fresh, repeating, 0, 6, -Search.WIN_SCORE, Search.WIN_SCORE, Long.MAX_VALUE, false);
+        search.getTable().clear();
+        int repeatedScore = search.scoreMove(repeated, repeating, 0, 6, -Search.WIN_SCORE, Search.WIN_SCORE, Long.MAX_VALUE, false);
+
+        assertNotEquals(0, freshScore);
+        assertEquals(0, repeatedScore);
+    }
+
+    @Test
+    public void testSearchScoresPositionsPastTheQuietMoveLimitAsDraws() {
+        BitBoard position = kingsOnly();
+        position.setDrawPlies(1);
+        Search search = new Search();
+        int move = search.findBestMove(position, 6);
+
+        assertNotEquals(PackedMove.NONE, move);
+        assertEquals(0, search.getBestScore());
+    }
+}
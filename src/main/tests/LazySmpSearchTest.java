@@ -0,0 +1,42 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.LazySmpSearch;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.PackedMove;
+import main.java.impl.Side;
+
+public class LazySmpSearchTest {
+
+    @Test
+    public void testHelpersStopWhenTheMainThreadFinishes() {
+        LazySmpSearch search = new LazySmpSearch(4);
+        MoveList moves = new MoveList();
+        BitBoard position = BitBoard.initial();
+        MoveGenerator.generate(position, moves);
+
+        int move = search.findBestMove(position, 6);
+        assertTrue(moves.contains(move, search.getBestVictims()));
+        assertEquals(6, search.getCompletedDepth());
+
+        long start = System.nanoTime();
+        move = search.findBestMoveWithin(position, 100);
+        assertTrue(moves.contains(move, search.getBestVictims()));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+        search.shutdown();
+    }
+
+    @Test
+    public void testNoMoveWhenTheSideToMoveHasLost() {
+        LazySmpSearch search = new LazySmpSearch(2);
+        BitBoard position = new BitBoard(1 << 20, 0, 0, Side.TOP);
+        assertEquals(PackedMove.NONE, search.findBestMoveWithin(position, 100));
+        search.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.PackedMove;
+import main.java.impl.Side;
+
+public class MoveGeneratorTest {
+
+    @Test
+    public void testSevenMovesFromTheStartingPosition() {
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(BitBoard.initial(), moves);
+
+        assertEquals(7, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(5, BitBoard.yOf(PackedMove.from(moves.get(i))));
+            assertEquals(4, BitBoard.yOf(PackedMove.to(moves.get(i))));
+        }
+    }
+
+    @Test
+    public void testTakesMustBeMadeWhenAvailable() {
+        BitBoard position = new BitBoard();
+        position.setPiece(BitBoard.squareOf(2, 5), Side.BOTTOM, false);
+        position.setPiece(BitBoard.squareOf(6, 5), Side.BOTTOM, false);
+        position.setPiece(BitBoard.squareOf(3, 4), Side.TOP, false);
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(position, moves);
+
+        assertEquals(1, moves.size());
+        int take = moves.get(0);
+        assertTrue(PackedMove.isCapture(take));
+        assertEquals(BitBoard.squareOf(4, 3), PackedMove.to(take));
+        assertEquals(BitBoard.squareOf(3, 4), PackedMove.captured(take));
+    }
+
+    @Test
+    public void testMenAreCrownedOnTheFarRow() {
+        BitBoard position = new BitBoard();
+        position.setPiece(BitBoard.squareOf(2, 1), Side.BOTTOM, false);
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(position, moves);
+        position.makeMove(moves.get(0), moves.getVictims(0));
+
+        assertTrue(PackedMove.isPromotion(moves.get(0)));
+        assertEquals(1, position.kingCount(Side.BOTTOM));
+        assertEquals(Side.TOP, position.getSideToMove());
+    }
+
+    @Test
+    public void testChainsOfTakesAreSingleMoves() {
+        // A black man at (1, 6) takes the red piece at (2, 5) and can then carry on
+        // over either (2, 3) or (4, 3), giving two double jumps
+        BitBoard position = new BitBoard();
+        position.setPiece(BitBoard.squareOf(1, 6), Side.BOTTOM, false);
+        position.setPiece(BitBoard.squareOf(2, 5), Side.TOP, false);
+        position.setPiece(BitBoard.squareOf(2, 3), Side.TOP, false);
+        position.setPiece(BitBoard.squareOf(4, 3), Side.TOP, false);
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(position, moves);
+
+        assertEquals(2, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(2, Integer.bitCount(moves.getVictims(i)));
+            assertEquals(BitBoard.squareOf(2, 5), PackedMove.captured(moves.get(i)));
+        }
+
+        position.makeMove(moves.get(0), moves.getVictims(0));
+        assertEquals(1, position.pieceCount(Side.TOP));
+        assertEquals(Side.TOP, position.getSideToMove());
+    }
+
+    @Test
+    public void testASideWhoseOnlyMovesAreTakesCanStillMove() {
+        // The black man's steps are both blocked, but it can take the man on square 25
+        BitBoard position = new BitBoard(1 << 28, (1 << 24) | (1 << 25), 0, Side.BOTTOM);
+        assertTrue(MoveGenerator.hasAnyTake(position));
+        assertTrue(MoveGenerator.hasAnyMove(position));
+
+        // Once the landing square is blocked too it has no moves left
+        position = new BitBoard(1 << 28, (1 << 24) | (1 << 25) | (1 << 21), 0, Side.BOTTOM);
+        assertFalse(MoveGenerator.hasAnyTake(position));
+        assertFalse(MoveGenerator.hasAnyMove(position));
+    }
+
+    @Test
+    public void testHasAnyMoveAgreesWithGeneratedMoves() {
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 20000; i++) {
+            // From two thirds of the squares full down to a quarter full, so some positions are blocked
+            int crowding = 3 + random.nextInt(6);
+            int black = 0;
+            int red = 0;
+            for (int square = 0; square < BitBoard.SQUARES; square++) {
+                int piece = random.nextInt(crowding);
+                if (piece == 0) {
+                    black |= 1 << square;
+                } else if (piece == 1) {
+                    red |= 1 << square;
+                }
+            }
+            BitBoard position = new BitBoard(black, red, random.nextInt() & (black | red),
+                    random.nextBoolean() ? Side.BOTTOM : Side.TOP);
+            MoveGenerator.generate(position, moves);
+
+            assertEquals(position.toString(), !moves.isEmpty(), MoveGenerator.hasAnyMove(position));
+            assertEquals(position.toString(), !moves.isEmpty() && PackedMove.isCapture(moves.get(0)),
+                    MoveGenerator.hasAnyTake(position));
+        }
+    }
+}
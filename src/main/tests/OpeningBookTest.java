@@ -0,0 +1,88 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.OpeningBook;
+import main.java.impl.OpeningBookBuilder;
+import main.java.impl.Side;
+
+public class OpeningBookTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBookMovesAreFoundByPosition() throws IOException {
+        BitBoard start = BitBoard.initial();
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(start, moves);
+
+        // The third opening move twice and the fifth once, and one reply to the third
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.add(start, moves.get(2), 0, 10);
+        builder.add(start, moves.get(2), 0, 20);
+        builder.add(start, moves.get(4), 0, 50);
+        BitBoard afterThird = start.copy();
+        afterThird.makeMove(moves.get(2), 0);
+        MoveList replies = new MoveList();
+        MoveGenerator.generate(afterThird, replies);
+        builder.add(afterThird, replies.get(0), 0, 0);
+
+        Path file = folder.newFile("test.book").toPath();
+        builder.write(file);
+        OpeningBook book = OpeningBook.open(file);
+
+        assertEquals(3, book.size());
+        assertEquals(2, book.choose(start, moves, null));
+        assertEquals(0, book.choose(afterThird, replies, null));
+
+        // Random picks only ever come from the book
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            int chosen = book.choose(start, moves, random);
+            assertTrue(chosen == 2 || chosen == 4);
+        }
+
+        BitBoard afterFirst = start.copy();
+        afterFirst.makeMove(moves.get(0), 0);
+        MoveGenerator.generate(afterFirst, replies);
+        assertFalse(book.contains(afterFirst));
+        assertEquals(-1, book.choose(afterFirst, replies, random));
+    }
+
+    @Test
+    public void testChainsOfTakesAreToldApartByTheirVictims() throws IOException {
+        // The black man on square 27 can take three pieces along either side of the board and end on
+        // square 2, both times taking the man on square 23 first
+        BitBoard position = new BitBoard(0x18000000, 0x0080C0C0, 0, Side.BOTTOM);
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(position, moves);
+        int booked = -1;
+        for (int i = 1; i < moves.size() && booked == -1; i++) {
+            if (moves.get(i) == moves.get(0) && moves.getVictims(i) != moves.getVictims(0)) {
+                booked = i;
+            }
+        }
+        assertTrue(booked > 0);
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.add(position, moves.get(booked), moves.getVictims(booked), 0);
+        Path file = folder.newFile("chains.book").toPath();
+        builder.write(file);
+
+        assertEquals(booked, OpeningBook.open(file).choose(position, moves, null));
+    }
+}
@@ -0,0 +1,45 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.ParallelSearch;
+import main.java.impl.Search;
+
+public class ParallelSearchTest {
+
+    @Test
+    public void testFindsTheSameMoveAsTheSequentialSearch() {
+        Random random = new Random(7);
+        ParallelSearch parallel = new ParallelSearch(4, 1);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 10; game++) {
+            // Play some random moves to get a position from the middle of a game
+            BitBoard position = BitBoard.initial();
+            for (int ply = 0; ply < 6 + 2 * game; ply++) {
+                MoveGenerator.generate(position, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int i = random.nextInt(moves.size());
+                position.makeMove(moves.get(i), moves.getVictims(i));
+            }
+
+            Search sequential = new Search();
+            int expected = sequential.findBestMove(position, 6);
+            assertEquals(expected, parallel.findBestMove(position, 6));
+            assertEquals(sequential.getBestVictims(), parallel.getBestVictims());
+
+            // However the root moves are shared out between the threads the next time, the move is the same
+            assertEquals(expected, parallel.findBestMove(position, 6));
+            assertEquals(sequential.getBestVictims(), parallel.getBestVictims());
+        }
+        parallel.shutdown();
+    }
+}
@@ -0,0 +1,135 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import main.java.gui.Piece;
+import main.java.gui.Tile;
+import main.java.impl.BitBoard;
+import main.java.impl.Board;
+import main.java.impl.Move;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.PackedMove;
+import main.java.impl.Perft;
+import main.java.impl.Player;
+import main.java.impl.Position;
+import main.java.impl.Take;
+import main.java.impl.TakeSequence;
+import main.java.impl.TileType;
+
+public class PerftTest {
+
+    @Test
+    public void testStartingPositionCounts() {
+        for (int depth = 1; depth <= 7; depth++) {
+            assertEquals(Perft.STARTING_POSITION_COUNTS[depth], new Perft(BitBoard.initial()).count(depth));
+        }
+    }
+
+    @Test
+    public void testThreadedCountAndDivideAgree() {
+        long count = Perft.count(BitBoard.initial(), 8, 4);
+        assertEquals(Perft.STARTING_POSITION_COUNTS[8], count);
+
+        Map<String, Long> divided = Perft.divide(BitBoard.initial(), 8, 4);
+        assertEquals(7, divided.size());
+        long total = 0;
+        for (long moveCount : divided.values()) {
+            total += moveCount;
+        }
+        assertEquals(count, total);
+    }
+
+    // The Board checks the human player's moves, so it must offer the same moves as MoveGenerator.
+    // Every position of the perft tree from the start is compared, until a king is made: placing a
+    // king on the Board draws its image, which needs the JavaFX toolkit to be running
+    @Test
+    public void testBoardAgreesWithMoveGenerator() {
+        Board board = new Board();
+        for (int y = 0; y < Board.HEIGHT; y++) {
+            for (int x = 0; x < Board.WIDTH; x++) {
+                board.getState()[x][y] = new Tile(x, y, (x + y) % 2 == 0 ? TileType.YELLOW : TileType.BROWN);
+            }
+        }
+        assertTrue(compareWithBoard(board, BitBoard.initial(), 6) > Perft.STARTING_POSITION_COUNTS[6]);
+    }
+
+    // Compares the Board's moves with MoveGenerator's in this position and every position below it
+    // to the given depth, and returns the number of positions compared
+    private long compareWithBoard(Board board, BitBoard position, int depth) {
+        if (position.getKings() != 0) {
+            return 0;
+        }
+        for (Tile[] row : board.getState()) {
+            for (Tile tile : row) {
+                tile.removePiece();
+            }
+        }
+        List<Piece> pieces = new ArrayList<>();
+        for (Piece piece : board.placePieces(position)) {
+            if (piece.getSide() == position.getSideToMove()) {
+                pieces.add(piece);
+            }
+        }
+        Player player = new Player("Perft", false, position.getSideToMove());
+
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(position, moves);
+        Set<String> expectedSteps = new HashSet<>();
+        Set<String> expectedTakes = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            Move boardMove = board.toMove(move, moves.getVictims(i));
+            if (!PackedMove.isCapture(move)) {
+                expectedSteps.add(step(boardMove.getOrigin(), boardMove.getDest()));
+                continue;
+            }
+            // The Board only finds the first take of a chain, which toMove has to put first
+            TakeSequence chain = (TakeSequence) boardMove;
+            assertEquals(Integer.bitCount(moves.getVictims(i)), chain.getPath().size());
+            assertEquals(PackedMove.to(move), BitBoard.squareOf(chain.getPath().get(chain.getPath().size() - 1)));
+            expectedTakes.add(take(chain.getOrigin(), chain.getPath().get(0), chain.getTargets().get(0)));
+        }
+
+        Set<String> takes = new HashSet<>();
+        for (Take take : board.findForceTakes(pieces)) {
+            takes.add(take(take.getOrigin(), take.getDest(), take.getTarget()));
+        }
+        assertEquals(position.toString(), expectedTakes, takes);
+        // The Board's moves are only offered when there is no take
+        if (expectedTakes.isEmpty()) {
+            Set<String> steps = new HashSet<>();
+            for (Move move : board.findValidMoves(player, pieces)) {
+                steps.add(step(move.getOrigin(), move.getDest()));
+            }
+            assertEquals(position.toString(), expectedSteps, steps);
+        }
+
+        long compared = 1;
+        if (depth > 0) {
+            for (int i = 0; i < moves.size(); i++) {
+                position.makeMove(moves.get(i), moves.getVictims(i));
+                compared += compareWithBoard(board, position, depth - 1);
+                position.undoMove();
+            }
+        }
+        return compared;
+    }
+
+    private static String step(Position from, Position to) {
+        return BitBoard.squareOf(from) + "-" + BitBoard.squareOf(to);
+    }
+
+    private static String take(Position from, Position to, Piece target) {
+        return step(from, to) + "x" + BitBoard.squareOf(target.getPosition());
+    }
+}
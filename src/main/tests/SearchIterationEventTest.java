@@ -0,0 +1,80 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import main.java.impl.BitBoard;
+import main.java.impl.LazySmpSearch;
+import main.java.impl.Search;
+
+public class SearchIterationEventTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEveryIterationIsRecorded() throws Exception {
+        Search search = new Search();
+        Path file = folder.getRoot().toPath().resolve("search.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("checkers.SearchIteration");
+            recording.start();
+            search.findBestMoveWithin(BitBoard.initial(), 200);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        int completed = 0;
+        long nodes = 0;
+        for (RecordedEvent event : events) {
+            assertFalse(event.getBoolean("helper"));
+            if (event.getBoolean("completed")) {
+                completed++;
+                assertEquals(completed, event.getInt("depth"));
+            }
+            nodes += event.getLong("nodes");
+        }
+        assertEquals(search.getCompletedDepth(), completed);
+        assertEquals(search.getNodes(), nodes);
+        assertTrue(events.size() <= completed + 1);
+    }
+
+    @Test
+    public void testHelperIterationsAreMarked() throws Exception {
+        LazySmpSearch search = new LazySmpSearch(2);
+        Path file = folder.getRoot().toPath().resolve("smp.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("checkers.SearchIteration");
+            recording.start();
+            search.findBestMoveWithin(BitBoard.initial(), 200);
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            search.shutdown();
+        }
+
+        int mainCompleted = 0;
+        int helperIterations = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getBoolean("helper")) {
+                helperIterations++;
+            } else if (event.getBoolean("completed")) {
+                mainCompleted++;
+            }
+        }
+        assertEquals(search.getCompletedDepth(), mainCompleted);
+        assertTrue(helperIterations > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.ParallelSearch;
+import main.java.impl.Search;
+import main.java.impl.SearchStats;
+
+public class SearchStatsTest {
+
+    @Test
+    public void testStatsOfAnIterativeSearch() {
+        Search search = new Search();
+        search.findBestMoveWithin(BitBoard.initial(), 200);
+        SearchStats stats = search.getStats();
+
+        assertEquals(search.getCompletedDepth(), stats.getDepth());
+        assertEquals(stats.getDepth(), stats.getIterationMillis().length);
+        assertTrue(stats.getNodes() > stats.getQuiescenceNodes());
+        assertTrue(stats.getCutoffs() > 0);
+        assertTrue(stats.getFirstMoveCutoffRate() > 50 && stats.getFirstMoveCutoffRate() <= 100);
+        assertTrue(stats.getTableHits() > 0 && stats.getTableHits() <= stats.getTableProbes());
+        assertTrue(stats.getEffectiveBranchingFactor() > 1);
+        assertTrue(stats.getMillis() >= 200);
+    }
+
+    @Test
+    public void testStatsAreResetForEachSearch() {
+        Search search = new Search();
+        search.findBestMove(BitBoard.initial(), 8);
+        long nodes = search.getStats().getNodes();
+        search.getTable().clear();
+        search.findBestMove(BitBoard.initial(), 2);
+        assertTrue(search.getStats().getNodes() < nodes);
+        assertEquals(2, search.getStats().getDepth());
+    }
+
+    @Test
+    public void testParallelSearchAddsUpEveryThread() {
+        ParallelSearch search = new ParallelSearch(2, 1);
+        try {
+            search.findBestMove(BitBoard.initial(), 6);
+            assertEquals(search.getNodes(), search.getStats().getNodes());
+            assertTrue(search.getStats().getNodes() > 0);
+            assertEquals(6, search.getStats().getDepth());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void testStatsCanBeReadAsAnMBean() throws Exception {
+        Search search = new Search();
+        search.findBestMove(BitBoard.initial(), 6);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("main.java.impl:type=SearchStats");
+        server.registerMBean(search.getStats(), name);
+
+        assertEquals(search.getNodes(), server.getAttribute(name, "Nodes"));
+        assertEquals(6, server.getAttribute(name, "Depth"));
+    }
+}
@@ -0,0 +1,45 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.Search;
+
+public class SearchTest {
+
+    @Test
+    public void testPrincipalVariationIsALineOfLegalMoves() {
+        Search search = new Search();
+        BitBoard position = BitBoard.initial();
+        int move = search.findBestMoveWithin(position, 200);
+
+        MoveList line = search.getPrincipalVariation();
+        assertTrue(line.size() > 1);
+        assertEquals(move, line.get(0));
+        assertEquals(search.getBestVictims(), line.getVictims(0));
+
+        MoveList moves = new MoveList();
+        for (int i = 0; i < line.size(); i++) {
+            MoveGenerator.generate(position, moves);
+            assertTrue(moves.contains(line.get(i), line.getVictims(i)));
+            position.makeMove(line.get(i), line.getVictims(i));
+        }
+    }
+
+    @Test
+    public void testAspirationWindowsFindTheSameScoreAsAFullWindow() {
+        BitBoard position = BitBoard.initial();
+        Search iterative = new Search();
+        iterative.findBestMoveWithin(position, 200);
+        int depth = iterative.getCompletedDepth();
+
+        Search fixed = new Search();
+        fixed.findBestMove(position, depth);
+        assertEquals(fixed.getBestScore(), iterative.getBestScore());
+    }
+}
@@ -0,0 +1,78 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import main.java.impl.BitBoard;
+import main.java.impl.MoveGenerator;
+import main.java.impl.MoveList;
+import main.java.impl.Side;
+import main.java.impl.Tablebase;
+import main.java.impl.TablebaseGenerator;
+
+public class TablebaseTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static Tablebase tablebase;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        new TablebaseGenerator(folder.getRoot().toPath(), 3, 2).generate();
+        tablebase = Tablebase.open(folder.getRoot().toPath());
+    }
+
+    @Test
+    public void testResultsAgreeWithTheResultsOfEveryMove() {
+        Random random = new Random(11);
+        BitBoard position = new BitBoard();
+        MoveList moves = new MoveList();
+        int slice = Tablebase.sliceOf(1, 1, 0, 1);
+        int checked = 0;
+        while (checked < 2000) {
+            if (!Tablebase.positionAt(slice, random.nextInt(Tablebase.sizeOf(slice)), position)) {
+                continue;
+            }
+            checked++;
+
+            // Won if a move leads to a lost position, lost if every move leads to a won one, drawn otherwise
+            MoveGenerator.generate(position, moves);
+            boolean anyLost = false;
+            boolean allWon = true;
+            for (int i = 0; i < moves.size(); i++) {
+                position.makeMove(moves.get(i), moves.getVictims(i));
+                int result = position.getPieces(position.getSideToMove()) == 0 ? Tablebase.LOSS : tablebase.probe(position);
+                assertNotEquals(Tablebase.UNKNOWN, result);
+                anyLost |= result == Tablebase.LOSS;
+                allWon &= result == Tablebase.WIN;
+                position.undoMove();
+            }
+            int expected = anyLost ? Tablebase.WIN : allWon ? Tablebase.LOSS : Tablebase.DRAW;
+            assertEquals(expected, tablebase.probe(position));
+        }
+    }
+
+    @Test
+    public void testProbesPositionsByMaterial() {
+        // A black king that can take the last red piece has won
+        int blackKing = 1 << BitBoard.squareOf(4, 5);
+        int redMan = 1 << BitBoard.squareOf(3, 4);
+        BitBoard position = new BitBoard(blackKing, redMan, blackKing, Side.BOTTOM);
+        assertEquals(Tablebase.WIN, tablebase.probe(position));
+        position.setSideToMove(Side.TOP);
+        assertTrue(tablebase.probe(position) != Tablebase.UNKNOWN);
+
+        assertEquals(Tablebase.UNKNOWN, tablebase.probe(BitBoard.initial()));
+        assertEquals(3, tablebase.getMaxPieces());
+    }
+}
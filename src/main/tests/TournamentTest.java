@@ -0,0 +1,96 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import main.java.impl.Evaluation;
+import main.java.utils.Tournament;
+import main.java.utils.TournamentResult;
+
+public class TournamentTest {
+
+    @Test
+    public void testEloOfScore() {
+        assertEquals(0, TournamentResult.eloOf(0.5), 1e-9);
+        assertEquals(-TournamentResult.eloOf(0.25), TournamentResult.eloOf(0.75), 1e-9);
+        assertEquals(0.75, TournamentResult.scoreOf(TournamentResult.eloOf(0.75)), 1e-9);
+        // A 10 to 1 chance of winning is 400 Elo
+        assertEquals(400, TournamentResult.eloOf(10.0 / 11), 1e-9);
+    }
+
+    @Test
+    public void testSprtAcceptsAClearlyStrongerEngine() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 200 && result.getVerdict() == TournamentResult.Verdict.CONTINUE; i++) {
+            result.add(i % 3 == 0 ? 0 : 1);
+        }
+        assertEquals(TournamentResult.Verdict.H1_ACCEPTED, result.getVerdict());
+        assertTrue(result.getEloDifference() - result.getEloError() > 0);
+    }
+
+    @Test
+    public void testSprtRejectsAClearlyWeakerEngine() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 200 && result.getVerdict() == TournamentResult.Verdict.CONTINUE; i++) {
+            result.add(i % 3 == 0 ? 0 : -1);
+        }
+        assertEquals(TournamentResult.Verdict.H0_ACCEPTED, result.getVerdict());
+        assertTrue(result.getEloDifference() < 0);
+    }
+
+    @Test
+    public void testSprtAcceptsAnEngineThatWinsEveryGame() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 1000 && result.getVerdict() == TournamentResult.Verdict.CONTINUE; i++) {
+            result.add(1);
+        }
+        assertEquals(TournamentResult.Verdict.H1_ACCEPTED, result.getVerdict());
+        assertTrue(Double.isFinite(result.getEloDifference()) && result.getEloDifference() > 0);
+        assertTrue(Double.isFinite(result.getEloError()) && result.getEloError() > 0);
+    }
+
+    @Test
+    public void testSprtRejectsAnEngineThatLosesEveryGame() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 1000 && result.getVerdict() == TournamentResult.Verdict.CONTINUE; i++) {
+            result.add(-1);
+        }
+        assertEquals(TournamentResult.Verdict.H0_ACCEPTED, result.getVerdict());
+        assertTrue(Double.isFinite(result.getEloDifference()) && result.getEloDifference() < 0);
+        assertTrue(Double.isFinite(result.getEloError()) && result.getEloError() > 0);
+    }
+
+    @Test
+    public void testAddPairReturnsTheGamesPlayed() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        assertEquals(2, result.addPair(1, 0));
+        assertEquals(4, result.addPair(-1, 1));
+        assertEquals(2, result.getWins());
+        assertEquals(1, result.getDraws());
+        assertEquals(1, result.getLosses());
+    }
+
+    @Test
+    public void testEvenResultsContinue() {
+        TournamentResult result = new TournamentResult(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 20; i++) {
+            result.add(i % 2 == 0 ? 1 : -1);
+        }
+        assertEquals(0, result.getEloDifference(), 1e-9);
+        assertEquals(TournamentResult.Verdict.CONTINUE, result.getVerdict());
+    }
+
+    @Test
+    public void testDeeperSearchWinsATournament() throws Exception {
+        Tournament.EngineConfig deep = new Tournament.EngineConfig("deep", Evaluation.DEFAULT, 0, 4, 1);
+        Tournament.EngineConfig shallow = new Tournament.EngineConfig("shallow", Evaluation.DEFAULT, 0, 1, 1);
+        TournamentResult result = new Tournament(deep, shallow, 2, 1).play(20, false);
+
+        assertEquals(20, result.getGames());
+        assertEquals(result.getGames(), result.getWins() + result.getDraws() + result.getLosses());
+        assertTrue(result.getWins() > result.getLosses());
+        assertTrue(result.getGamesPerSecond() > 0);
+    }
+}
@@ -0,0 +1,57 @@
+package main.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import main.java.impl.Bound;
+import main.java.impl.PackedMove;
+import main.java.impl.TranspositionTable;
+import main.java.impl.TranspositionTable.ReplacementPolicy;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoredEntriesCanBeReadBack() {
+        TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.DEPTH_PREFERRED);
+        int move = PackedMove.take(21, 14, 17, true);
+        table.store(0x1234567890ABCDEFL, 7, -993, Bound.LOWER, move);
+
+        long entry = table.probe(0x1234567890ABCDEFL);
+        assertEquals(7, TranspositionTable.depthOf(entry));
+        assertEquals(-993, TranspositionTable.scoreOf(entry));
+        assertEquals(Bound.LOWER, TranspositionTable.boundOf(entry));
+        assertEquals(move, TranspositionTable.moveOf(entry));
+
+        assertEquals(0, table.probe(0x1234567890ABCDEEL));
+    }
+
+    @Test
+    public void testDeeperResultsAreKeptUnlessTheyAreFromAnEarlierSearch() {
+        TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.DEPTH_PREFERRED);
+        long deep = 5;
+        long shallow = deep + table.capacity();
+
+        table.store(deep, 8, 10, Bound.EXACT, PackedMove.NONE);
+        table.store(shallow, 2, 20, Bound.EXACT, PackedMove.NONE);
+        assertEquals(8, TranspositionTable.depthOf(table.probe(deep)));
+        assertEquals(0, table.probe(shallow));
+
+        table.newSearch();
+        table.store(shallow, 2, 20, Bound.EXACT, PackedMove.NONE);
+        assertEquals(0, table.probe(deep));
+        assertEquals(20, TranspositionTable.scoreOf(table.probe(shallow)));
+    }
+
+    @Test
+    public void testAlwaysReplaceKeepsTheNewestResult() {
+        TranspositionTable table = new TranspositionTable(1, ReplacementPolicy.ALWAYS_REPLACE);
+        long deep = 5;
+        long shallow = deep + table.capacity();
+
+        table.store(deep, 8, 10, Bound.EXACT, PackedMove.NONE);
+        table.store(shallow, 2, 20, Bound.UPPER, PackedMove.NONE);
+        assertEquals(0, table.probe(deep));
+        assertEquals(Bound.UPPER, TranspositionTable.boundOf(table.probe(shallow)));
+    }
+}